@@ -4,11 +4,16 @@ import ec.edu.ups.icc.fundamentos01.categories.Services.CategoryService;
 import ec.edu.ups.icc.fundamentos01.categories.entity.CreateCategoryDto;
 import ec.edu.ups.icc.fundamentos01.categories.entity.UpdateCategoryDto;
 import ec.edu.ups.icc.fundamentos01.categories.entity.CategoryResponseDto;
+import ec.edu.ups.icc.fundamentos01.core.web.JsonStreamResponses;
+import ec.edu.ups.icc.fundamentos01.products.dtos.CursorPageDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -17,21 +22,35 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final JsonStreamResponses jsonStreams;
 
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, JsonStreamResponses jsonStreams) {
         this.categoryService = categoryService;
+        this.jsonStreams = jsonStreams;
     }
 
+    // GET /api/categories y /api/categories/{id} llevan el ETag de la versión
+    // de las categorías: con If-None-Match igual Spring responde 304 sin
+    // serializar el cuerpo. El ETag se lee antes que los datos: nunca es más
+    // nuevo que el cuerpo que acompaña.
     @GetMapping
     public ResponseEntity<List<CategoryResponseDto>> findAll() {
+        String version = categoryService.currentVersion();
         List<CategoryResponseDto> categories = categoryService.findAll();
-        return ResponseEntity.ok(categories);
+        return ResponseEntity.ok()
+                .eTag(version)
+                .cacheControl(CacheControl.noCache())
+                .body(categories);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<CategoryResponseDto> findById(@PathVariable("id") Long id) {
+        String version = categoryService.currentVersion();
         CategoryResponseDto category = categoryService.findOne(id);
-        return ResponseEntity.ok(category);
+        return ResponseEntity.ok()
+                .eTag(version)
+                .cacheControl(CacheControl.noCache())
+                .body(category);
     }
 
     @PostMapping
@@ -67,4 +86,33 @@ public class CategoryController {
         List<ProductResponseDto> products = categoryService.getProductsByCategoryId(id);
         return ResponseEntity.ok(products);
     }
+
+    // GET /api/categories/{id}/products/paginated?page=0&size=10&sort=price,desc
+    @GetMapping("/{id}/products/paginated")
+    public ResponseEntity<Page<ProductResponseDto>> findProductsByCategoryIdPaginated(
+            @PathVariable("id") Long id,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "sort", defaultValue = "id") String[] sort) {
+        Page<ProductResponseDto> products = categoryService.getProductsByCategoryId(id, page, size, sort);
+        return ResponseEntity.ok(products);
+    }
+
+    // GET /api/categories/{id}/products/cursor?size=10&cursor={nextCursor}
+    @GetMapping("/{id}/products/cursor")
+    public ResponseEntity<CursorPageDto<ProductResponseDto>> findProductsByCategoryIdByCursor(
+            @PathVariable("id") Long id,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "sort", defaultValue = "id") String[] sort) {
+        CursorPageDto<ProductResponseDto> products = categoryService.getProductsByCategoryIdByCursor(
+                id, cursor, size, sort);
+        return ResponseEntity.ok(products);
+    }
+
+    // GET /api/categories/{id}/products/stream: NDJSON, un producto por línea.
+    @GetMapping(value = "/{id}/products/stream", produces = JsonStreamResponses.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamProductsByCategoryId(@PathVariable("id") Long id) {
+        return jsonStreams.ndjson(categoryService.streamProductsByCategoryId(id));
+    }
 }
@@ -0,0 +1,208 @@
+package ec.edu.ups.icc.fundamentos01.categories.Services;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import ec.edu.ups.icc.fundamentos01.categories.entity.CategoryEntity;
+import ec.edu.ups.icc.fundamentos01.categories.events.CategoryChangedEvent;
+import ec.edu.ups.icc.fundamentos01.categories.models.Category;
+import ec.edu.ups.icc.fundamentos01.categories.repositories.CategoryRepository;
+import ec.edu.ups.icc.fundamentos01.config.CategoryCacheProperties;
+
+/**
+ * CategoryCache: Copia en memoria de todas las categorías
+ *
+ * - Las categorías son un conjunto pequeño que casi no cambia: se guarda un
+ *   snapshot inmutable de todas (ordenadas por ID) con un número de versión
+ * - Las lecturas (GET /api/categories, validación de categorías al escribir
+ *   productos) no tocan la BD ni toman una conexión del pool
+ * - Copy-on-write: cada cambio (CategoryChangedEvent, después del commit) carga
+ *   un snapshot nuevo y lo reemplaza de forma atómica; los lectores siguen
+ *   usando el anterior sin bloqueos
+ * - La versión es el número de carga: una recarga más lenta que empezó antes
+ *   no pisa a una más nueva. Si el contenido no cambió se conserva la versión
+ *   (y el ETag) anterior
+ * - Una recarga periódica (category-cache.refresh-interval) cubre cambios hechos
+ *   fuera de la aplicación o en otra instancia; un ID que no está en el snapshot
+ *   se busca en la BD antes de darlo por inexistente
+ */
+@Service
+public class CategoryCache {
+
+    /**
+     * Categorías en un momento dado
+     *
+     * @param version   Número de carga que produjo este contenido
+     * @param tag       Identificador de esta versión (arranque + versión)
+     * @param changedAt Momento en que se cargó este contenido
+     * @param byId      categoryId → categoría, ordenado por ID (no se modifican)
+     */
+    public record Snapshot(long version, String tag, Instant changedAt, Map<Long, Category> byId) {
+
+        public Collection<Category> all() {
+            return byId.values();
+        }
+
+        /**
+         * ETag HTTP de esta versión
+         */
+        public String etag() {
+            return "\"" + tag + "\"";
+        }
+    }
+
+    private final CategoryRepository categoryRepo;
+    private final CategoryCacheProperties properties;
+
+    // Identifica este arranque en el ETag: la versión 3 de otro proceso no coincide
+    private final String epoch = Long.toHexString(System.currentTimeMillis());
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    public CategoryCache(CategoryRepository categoryRepo, CategoryCacheProperties properties) {
+        this.categoryRepo = categoryRepo;
+        this.properties = properties;
+    }
+
+    /**
+     * Snapshot vigente (se carga en el primer uso)
+     * Con el cache deshabilitado cada llamada lee la BD.
+     */
+    public Snapshot snapshot() {
+        if (!properties.isEnabled()) {
+            return load(loads.incrementAndGet());
+        }
+        Snapshot snapshot = current.get();
+        return snapshot != null ? snapshot : reload();
+    }
+
+    /**
+     * @param categoryId ID de la categoría
+     * @return la categoría, vacío si no existe
+     */
+    public Optional<Category> findById(Long categoryId) {
+        Category category = snapshot().byId().get(categoryId);
+        if (category != null) {
+            return Optional.of(category);
+        }
+        return findMissing(Set.of(categoryId)).stream().findFirst().map(Category::fromEntity);
+    }
+
+    /**
+     * @param categoryIds IDs buscados
+     * @return categoryId → entidad separada del contexto de persistencia (sirve
+     *         para la relación producto-categoría sin otro SELECT); los IDs que
+     *         no existen no aparecen
+     */
+    public Map<Long, CategoryEntity> findAllById(Collection<Long> categoryIds) {
+        Map<Long, Category> byId = snapshot().byId();
+        Map<Long, CategoryEntity> found = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        for (Long categoryId : categoryIds) {
+            Category category = byId.get(categoryId);
+            if (category != null) {
+                found.put(categoryId, category.toEntity());
+            } else {
+                missing.add(categoryId);
+            }
+        }
+        findMissing(missing).forEach(category -> found.put(category.getId(), category));
+        return found;
+    }
+
+    /**
+     * @param categoryId ID de la categoría
+     * @return true si la categoría existe
+     */
+    public boolean existsById(Long categoryId) {
+        return findById(categoryId).isPresent();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (properties.isEnabled()) {
+            reload();
+        }
+    }
+
+    @Scheduled(initialDelayString = "#{@categoryCacheProperties.refreshInterval.toMillis()}",
+            fixedDelayString = "#{@categoryCacheProperties.refreshInterval.toMillis()}")
+    public void refresh() {
+        if (properties.isEnabled() && current.get() != null) {
+            reload();
+        }
+    }
+
+    /**
+     * Carga todas las categorías y reemplaza el snapshot si es más nuevo
+     */
+    Snapshot reload() {
+        Snapshot loaded = load(loads.incrementAndGet());
+        return current.accumulateAndGet(loaded, (previous, next) -> {
+            if (previous == null) {
+                return next;
+            }
+            if (next.version() < previous.version() || sameContent(previous, next)) {
+                return previous;
+            }
+            return next;
+        });
+    }
+
+    /**
+     * IDs que no están en el snapshot: pueden haberse creado en otra instancia
+     * después de la última recarga. Si aparecen, se recarga el snapshot.
+     */
+    private List<CategoryEntity> findMissing(Set<Long> categoryIds) {
+        if (categoryIds.isEmpty()) {
+            return List.of();
+        }
+        List<CategoryEntity> found = categoryRepo.findAllById(categoryIds);
+        if (!found.isEmpty() && properties.isEnabled()) {
+            reload();
+        }
+        return found;
+    }
+
+    private Snapshot load(long version) {
+        Map<Long, Category> byId = new LinkedHashMap<>();
+        for (CategoryEntity entity : categoryRepo.findAll(Sort.by("id"))) {
+            byId.put(entity.getId(), Category.fromEntity(entity));
+        }
+        return new Snapshot(version, epoch + "-" + version, Instant.now(), Collections.unmodifiableMap(byId));
+    }
+
+    private static boolean sameContent(Snapshot left, Snapshot right) {
+        if (left.byId().size() != right.byId().size()) {
+            return false;
+        }
+        Iterator<Category> rightCategories = right.all().iterator();
+        for (Category category : left.all()) {
+            Category other = rightCategories.next();
+            if (!Objects.equals(category.getId(), other.getId())
+                    || !Objects.equals(category.getName(), other.getName())
+                    || !Objects.equals(category.getDescription(), other.getDescription())
+                    || !Objects.equals(category.getVersion(), other.getVersion())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,91 @@
+package ec.edu.ups.icc.fundamentos01.categories.Services;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import ec.edu.ups.icc.fundamentos01.categories.repositories.CategoryRepository;
+import ec.edu.ups.icc.fundamentos01.config.CategoryProductCountCacheProperties;
+import ec.edu.ups.icc.fundamentos01.core.cache.CacheLoads;
+import ec.edu.ups.icc.fundamentos01.exception.domain.NotFoundException;
+import ec.edu.ups.icc.fundamentos01.products.events.ProductChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * CategoryProductCountService: Cantidad de productos por categoría
+ *
+ * - En la BD es un COUNT sobre product_categories (CategoryRepository.countProductsById),
+ *   sin cargar la colección de productos de la categoría
+ * - Delante hay un cache acotado categoryId → cantidad; una consulta repetida
+ *   no toca la BD ni reserva memoria
+ * - Las entradas se invalidan con ProductChangedEvent (categorías que ganaron o
+ *   perdieron un producto) y al eliminar la categoría; el TTL cubre cambios
+ *   hechos fuera de la aplicación
+ *
+ * Las estadísticas se publican como métricas "cache.*" con tag cache=categoryProductCount.
+ */
+@Service
+public class CategoryProductCountService {
+
+    private final CategoryRepository categoryRepo;
+
+    /**
+     * Cache categoryId → cantidad de productos (null si está deshabilitado)
+     */
+    private final AsyncCache<Long, Long> cache;
+
+    public CategoryProductCountService(CategoryRepository categoryRepo,
+            CategoryProductCountCacheProperties cacheProperties,
+            MeterRegistry meterRegistry) {
+        this.categoryRepo = categoryRepo;
+
+        if (cacheProperties.isEnabled()) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(cacheProperties.getMaxSize())
+                    .expireAfterWrite(cacheProperties.getTtl())
+                    .recordStats()
+                    .buildAsync();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "categoryProductCount");
+        } else {
+            this.cache = null;
+        }
+    }
+
+    /**
+     * @param categoryId ID de la categoría
+     * @return Cantidad de productos asociados
+     * @throws NotFoundException si la categoría no existe (no se guarda en cache)
+     */
+    public long count(Long categoryId) {
+        if (cache == null) {
+            return load(categoryId);
+        }
+        return CacheLoads.getOrLoad(cache, categoryId, this::load);
+    }
+
+    /**
+     * Descarta el conteo guardado de una categoría
+     */
+    public void evict(Long categoryId) {
+        if (cache != null) {
+            cache.synchronous().invalidate(categoryId);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (cache != null) {
+            cache.synchronous().invalidateAll(event.getCategoryIds());
+        }
+    }
+
+    private Long load(Long categoryId) {
+        // Una sola consulta: si la categoría no existe no hay fila
+        return categoryRepo.countProductsById(categoryId)
+                .map(Integer::longValue)
+                .orElseThrow(() -> new NotFoundException("Categoría no encontrada con ID: " + categoryId));
+    }
+}
@@ -1,14 +1,24 @@
 package ec.edu.ups.icc.fundamentos01.categories.Services;
 
 import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Page;
 
 import ec.edu.ups.icc.fundamentos01.categories.entity.CategoryResponseDto;
 import ec.edu.ups.icc.fundamentos01.categories.entity.CreateCategoryDto;
 import ec.edu.ups.icc.fundamentos01.categories.entity.UpdateCategoryDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.CursorPageDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
 
 public interface CategoryService {
 
+    /**
+     * ETag de la versión actual de las categorías
+     * Cambia cuando se crea, modifica o elimina cualquier categoría.
+     */
+    String currentVersion();
+
     List<CategoryResponseDto> findAll();
 
     CategoryResponseDto findOne(Long id);
@@ -23,4 +33,11 @@ public interface CategoryService {
     Long countProductsByCategoryId(Long categoryId);
 
     List<ProductResponseDto> getProductsByCategoryId(Long categoryId);
+
+    Page<ProductResponseDto> getProductsByCategoryId(Long categoryId, int page, int size, String[] sort);
+
+    CursorPageDto<ProductResponseDto> getProductsByCategoryIdByCursor(Long categoryId, String cursor, int size,
+            String[] sort);
+
+    Stream<ProductResponseDto> streamProductsByCategoryId(Long categoryId);
 }
@@ -4,18 +4,23 @@ import ec.edu.ups.icc.fundamentos01.categories.entity.CreateCategoryDto;
 import ec.edu.ups.icc.fundamentos01.categories.entity.UpdateCategoryDto;
 import ec.edu.ups.icc.fundamentos01.categories.entity.CategoryEntity;
 import ec.edu.ups.icc.fundamentos01.categories.entity.CategoryResponseDto;
+import ec.edu.ups.icc.fundamentos01.categories.events.CategoryChangedEvent;
 import ec.edu.ups.icc.fundamentos01.categories.models.Category;
 import ec.edu.ups.icc.fundamentos01.categories.repositories.CategoryRepository;
 import ec.edu.ups.icc.fundamentos01.exception.domain.ConflictException;
 import ec.edu.ups.icc.fundamentos01.exception.domain.NotFoundException;
+import ec.edu.ups.icc.fundamentos01.products.dtos.CursorPageDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
-import ec.edu.ups.icc.fundamentos01.products.mappers.ProductMapper;
-import ec.edu.ups.icc.fundamentos01.products.repositories.ProductRepository;
+import ec.edu.ups.icc.fundamentos01.products.services.ProductService;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Implementación del servicio para operaciones de Category
@@ -25,26 +30,43 @@ import java.util.List;
 public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepo;
-    private final ProductRepository productRepo;
-
-    public CategoryServiceImpl(CategoryRepository categoryRepo, ProductRepository productRepo) {
+    private final ProductService productService;
+    private final CategoryProductCountService productCounts;
+    private final CategoryCache categoryCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CategoryServiceImpl(CategoryRepository categoryRepo, ProductService productService,
+            CategoryProductCountService productCounts, CategoryCache categoryCache,
+            ApplicationEventPublisher eventPublisher) {
         this.categoryRepo = categoryRepo;
-        this.productRepo = productRepo;
+        this.productService = productService;
+        this.productCounts = productCounts;
+        this.categoryCache = categoryCache;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Lecturas desde el snapshot en memoria (CategoryCache), sin transacción:
+    // no toman una conexión del pool
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String currentVersion() {
+        return categoryCache.snapshot().etag();
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<CategoryResponseDto> findAll() {
-        return categoryRepo.findAll()
+        return categoryCache.snapshot().all()
                 .stream()
-                .map(Category::fromEntity)
                 .map(this::toResponse)
                 .toList();
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public CategoryResponseDto findOne(Long id) {
-        return categoryRepo.findById(id)
-                .map(Category::fromEntity)
+        return categoryCache.findById(id)
                 .map(this::toResponse)
                 .orElseThrow(() -> new NotFoundException("Categoría no encontrada con ID: " + id));
     }
@@ -63,6 +85,7 @@ public class CategoryServiceImpl implements CategoryService {
         // Convertir a entidad y persistir
         CategoryEntity entity = category.toEntity();
         CategoryEntity saved = categoryRepo.save(entity);
+        eventPublisher.publishEvent(new CategoryChangedEvent(saved.getId(), CategoryChangedEvent.Type.CREATED));
 
         // Retornar DTO de respuesta
         return toResponse(Category.fromEntity(saved));
@@ -84,10 +107,12 @@ public class CategoryServiceImpl implements CategoryService {
         Category category = Category.fromEntity(existing);
         category.update(dto);
 
-        // Persistir cambios
-        CategoryEntity updated = category.toEntity();
-        updated.setId(id); // Mantener el ID
-        CategoryEntity saved = categoryRepo.save(updated);
+        // Persistir cambios sobre la entidad leída: conserva su versión
+        // (@Version) y createdAt, que una entidad nueva con el mismo ID perdería
+        existing.setName(category.getName());
+        existing.setDescription(category.getDescription());
+        CategoryEntity saved = categoryRepo.save(existing);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id, CategoryChangedEvent.Type.UPDATED));
 
         return toResponse(Category.fromEntity(saved));
     }
@@ -100,27 +125,43 @@ public class CategoryServiceImpl implements CategoryService {
 
         // Eliminación física
         categoryRepo.delete(category);
+        productCounts.evict(id);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id, CategoryChangedEvent.Type.DELETED));
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Long countProductsByCategoryId(Long categoryId) {
-        // Verificar que la categoría existe
-        CategoryEntity category = categoryRepo.findById(categoryId)
-                .orElseThrow(() -> new NotFoundException("Categoría no encontrada con ID: " + categoryId));
-
-        // Retornar el conteo de productos asociados
-        return (long) category.getProducts().size();
+        // COUNT en la BD (con cache), sin inicializar category.getProducts()
+        // Sin transacción: un acierto del cache no toma una conexión del pool
+        return productCounts.count(categoryId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ProductResponseDto> getProductsByCategoryId(Long categoryId) {
-        categoryRepo.findById(categoryId)
-                .orElseThrow(() -> new NotFoundException("Categoria no encontrada con ID: " + categoryId));
+        // Proyecciones con owner y categorías resueltos en la consulta (sin cargas lazy)
+        return productService.findByCategoryId(categoryId);
+    }
 
-        return productRepo.findByCategoriesId(categoryId)
-                .stream()
-                .map(ProductMapper::toResponse)
-                .toList();
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductResponseDto> getProductsByCategoryId(Long categoryId, int page, int size, String[] sort) {
+        return productService.findByCategoryId(categoryId, page, size, sort);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<ProductResponseDto> getProductsByCategoryIdByCursor(Long categoryId, String cursor,
+            int size, String[] sort) {
+        return productService.findByCategoryIdByCursor(categoryId, cursor, size, sort);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Stream<ProductResponseDto> streamProductsByCategoryId(Long categoryId) {
+        // Sin transacción: el Stream se consume después, al escribir la respuesta
+        return productService.streamByCategoryId(categoryId);
     }
 
     private CategoryResponseDto toResponse(Category category) {
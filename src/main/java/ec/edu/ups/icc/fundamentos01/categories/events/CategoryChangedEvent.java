@@ -0,0 +1,36 @@
+package ec.edu.ups.icc.fundamentos01.categories.events;
+
+/**
+ * Evento publicado cuando se crea, modifica o elimina una categoría
+ *
+ * Lo escuchan los componentes que guardan copias de categorías en memoria:
+ * - CategoryCache: snapshot en memoria de todas las categorías
+ */
+public class CategoryChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Long categoryId;
+    private final Type type;
+
+    /**
+     * @param categoryId ID de la categoría
+     * @param type       Tipo de cambio
+     */
+    public CategoryChangedEvent(Long categoryId, Type type) {
+        this.categoryId = categoryId;
+        this.type = type;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+}
@@ -13,6 +13,7 @@ public class Category {
     private Long id;
     private String name;
     private String description;
+    private Long version;
 
     // Constructores
     public Category() {
@@ -48,6 +49,7 @@ public class Category {
     public static Category fromEntity(CategoryEntity entity) {
         Category category = new Category(entity.getName(), entity.getDescription());
         category.id = entity.getId();
+        category.version = entity.getVersion();
         return category;
     }
 
@@ -65,6 +67,9 @@ public class Category {
 
         entity.setName(this.name);
         entity.setDescription(this.description);
+        // Con la versión Hibernate la reconoce como fila existente (no transitoria)
+        // al usarla como referencia en product_categories
+        entity.setVersion(this.version);
 
         return entity;
     }
@@ -92,6 +97,10 @@ public class Category {
         return description;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -2,6 +2,8 @@ package ec.edu.ups.icc.fundamentos01.categories.repositories;
 
 import ec.edu.ups.icc.fundamentos01.categories.entity.CategoryEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -22,4 +24,12 @@ public interface CategoryRepository extends JpaRepository<CategoryEntity, Long>
      * Busca categoría por nombre (case insensitive)
      */
     Optional<CategoryEntity> findByNameIgnoreCase(String name);
+
+    /**
+     * Cantidad de productos de la categoría
+     * SIZE se traduce a un COUNT sobre product_categories: no carga la colección
+     * Vacío si la categoría no existe
+     */
+    @Query("SELECT SIZE(c.products) FROM CategoryEntity c WHERE c.id = :id")
+    Optional<Integer> countProductsById(@Param("id") Long id);
 }
@@ -0,0 +1,39 @@
+package ec.edu.ups.icc.fundamentos01.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de la copia en memoria de las categorías
+ * (ver CategoryCache)
+ */
+@Configuration
+@ConfigurationProperties(prefix = "category-cache")
+public class CategoryCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Cada cuánto se recarga el snapshot aunque no haya cambios en esta
+     * instancia (cambios hechos fuera de la aplicación o en otra instancia)
+     */
+    private Duration refreshInterval = Duration.ofMinutes(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+}
@@ -2,6 +2,11 @@ package ec.edu.ups.icc.fundamentos01.config;
 
 // imports packages y clases....
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
@@ -16,6 +21,192 @@ public class JwtProperties {
     private String header;
     private String prefix;
 
+    // Familias de refresh tokens que se mantienen en memoria (ver RefreshTokenService)
+    private long refreshIndexSize = 100_000;
+
+    // Máximo de tokens verificados que se mantienen en memoria (ver JwtUtil.parseVerified)
+    private long verifiedTokenCacheSize = 10_000;
+
+    // De dónde sale el usuario autenticado en cada request (ver JwtAuthenticationFilter)
+    private PrincipalMode principalMode = PrincipalMode.DATABASE;
+
+    // Rechaza tokens emitidos antes de un cambio del usuario (ver TokenRevocationService)
+    // Solo con principalMode CLAIMS: con DATABASE el usuario se lee en cada request
+    private boolean revocationCheck = true;
+
+    // Algoritmo y claves de firma de los access tokens (ver JwtKeyService)
+    private final Signing signing = new Signing();
+
+    /**
+     * DATABASE: carga el usuario desde la BD en cada request (UserDetailsServiceImpl)
+     * CLAIMS: reconstruye el usuario desde los claims del token, sin consultar la BD
+     */
+    public enum PrincipalMode {
+        DATABASE,
+        CLAIMS
+    }
+
+    /**
+     * HS256: HMAC con jwt.secret; quien verifica necesita el mismo secreto
+     * ED25519: EdDSA sobre Ed25519 (firma y verificación rápidas, claves de 32 bytes)
+     * ES256: ECDSA P-256 con SHA-256
+     *
+     * Con ED25519 y ES256 cualquier nodo verifica solo con la clave pública
+     * (publicada en /.well-known/jwks.json)
+     */
+    public enum SigningAlgorithm {
+        HS256,
+        ED25519,
+        ES256
+    }
+
+    public static class Signing {
+
+        private SigningAlgorithm algorithm = SigningAlgorithm.HS256;
+
+        // Claves asimétricas; sin claves (ni jwks-uri) se genera un par efímero al iniciar
+        private List<SigningKey> keys = new ArrayList<>();
+
+        // JWKS de otra instancia: nodos que solo verifican tokens (sin claves privadas)
+        private String jwksUri;
+
+        // Tiempo que se reutiliza el JWKS remoto descargado
+        private Duration jwksCacheTtl = Duration.ofMinutes(10);
+
+        // Un kid desconocido vuelve a descargar el JWKS como máximo una vez por intervalo
+        private Duration jwksMinRefreshInterval = Duration.ofSeconds(30);
+
+        // La descarga corre en el request que verifica el token (y los demás
+        // esperan la misma descarga): si el host del JWKS no responde, falla
+        // en este tiempo en lugar de colgar todas las solicitudes
+        private Duration jwksConnectTimeout = Duration.ofSeconds(2);
+        private Duration jwksReadTimeout = Duration.ofSeconds(5);
+
+        public SigningAlgorithm getAlgorithm() {
+            return algorithm;
+        }
+
+        public void setAlgorithm(SigningAlgorithm algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        public List<SigningKey> getKeys() {
+            return keys;
+        }
+
+        public void setKeys(List<SigningKey> keys) {
+            this.keys = keys;
+        }
+
+        public String getJwksUri() {
+            return jwksUri;
+        }
+
+        public void setJwksUri(String jwksUri) {
+            this.jwksUri = jwksUri;
+        }
+
+        public Duration getJwksCacheTtl() {
+            return jwksCacheTtl;
+        }
+
+        public void setJwksCacheTtl(Duration jwksCacheTtl) {
+            this.jwksCacheTtl = jwksCacheTtl;
+        }
+
+        public Duration getJwksMinRefreshInterval() {
+            return jwksMinRefreshInterval;
+        }
+
+        public void setJwksMinRefreshInterval(Duration jwksMinRefreshInterval) {
+            this.jwksMinRefreshInterval = jwksMinRefreshInterval;
+        }
+
+        public Duration getJwksConnectTimeout() {
+            return jwksConnectTimeout;
+        }
+
+        public void setJwksConnectTimeout(Duration jwksConnectTimeout) {
+            this.jwksConnectTimeout = jwksConnectTimeout;
+        }
+
+        public Duration getJwksReadTimeout() {
+            return jwksReadTimeout;
+        }
+
+        public void setJwksReadTimeout(Duration jwksReadTimeout) {
+            this.jwksReadTimeout = jwksReadTimeout;
+        }
+    }
+
+    /**
+     * Par de claves de firma
+     *
+     * Rotación sin cortar sesiones:
+     * 1. Se agrega la clave nueva con activeFrom en el futuro: se publica en el
+     *    JWKS antes de firmar con ella
+     * 2. Desde activeFrom firma la clave nueva (la más reciente ya activa)
+     * 3. La anterior sigue verificando hasta su expiresAt, que debe quedar al
+     *    menos jwt.expiration después de su último token firmado
+     */
+    public static class SigningKey {
+
+        // Identificador (header "kid"); por defecto el thumbprint JWK de la clave pública
+        private String kid;
+
+        // PKCS#8 en Base64 o PEM; sin ella la clave solo verifica
+        private String privateKey;
+
+        // X.509 (SubjectPublicKeyInfo) en Base64 o PEM
+        private String publicKey;
+
+        // Desde cuándo firma (por defecto, desde que se carga)
+        private Instant activeFrom;
+
+        // Desde cuándo deja de verificar y de publicarse (por defecto, nunca)
+        private Instant expiresAt;
+
+        public String getKid() {
+            return kid;
+        }
+
+        public void setKid(String kid) {
+            this.kid = kid;
+        }
+
+        public String getPrivateKey() {
+            return privateKey;
+        }
+
+        public void setPrivateKey(String privateKey) {
+            this.privateKey = privateKey;
+        }
+
+        public String getPublicKey() {
+            return publicKey;
+        }
+
+        public void setPublicKey(String publicKey) {
+            this.publicKey = publicKey;
+        }
+
+        public Instant getActiveFrom() {
+            return activeFrom;
+        }
+
+        public void setActiveFrom(Instant activeFrom) {
+            this.activeFrom = activeFrom;
+        }
+
+        public Instant getExpiresAt() {
+            return expiresAt;
+        }
+
+        public void setExpiresAt(Instant expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+
     public String getSecret() {
         return secret;
     }
@@ -40,6 +231,14 @@ public class JwtProperties {
         this.refreshExpiration = refreshExpiration;
     }
 
+    public long getRefreshIndexSize() {
+        return refreshIndexSize;
+    }
+
+    public void setRefreshIndexSize(long refreshIndexSize) {
+        this.refreshIndexSize = refreshIndexSize;
+    }
+
     public String getIssuer() {
         return issuer;
     }
@@ -64,6 +263,34 @@ public class JwtProperties {
         this.prefix = prefix;
     }
 
+    public long getVerifiedTokenCacheSize() {
+        return verifiedTokenCacheSize;
+    }
+
+    public void setVerifiedTokenCacheSize(long verifiedTokenCacheSize) {
+        this.verifiedTokenCacheSize = verifiedTokenCacheSize;
+    }
+
+    public PrincipalMode getPrincipalMode() {
+        return principalMode;
+    }
+
+    public void setPrincipalMode(PrincipalMode principalMode) {
+        this.principalMode = principalMode;
+    }
+
+    public boolean isRevocationCheck() {
+        return revocationCheck;
+    }
+
+    public void setRevocationCheck(boolean revocationCheck) {
+        this.revocationCheck = revocationCheck;
+    }
+
+    public Signing getSigning() {
+        return signing;
+    }
+
     // Getters y Setters
 
 }
\ No newline at end of file
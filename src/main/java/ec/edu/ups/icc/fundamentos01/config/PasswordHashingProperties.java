@@ -0,0 +1,90 @@
+package ec.edu.ups.icc.fundamentos01.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración del hash de contraseñas (ver SecurityConfig.passwordEncoder y
+ * PooledPasswordEncoder)
+ */
+@Configuration
+@ConfigurationProperties(prefix = "password-hashing")
+public class PasswordHashingProperties {
+
+    // Algoritmo de los hashes nuevos; los guardados con otro se re-hashean al iniciar sesión
+    private Algorithm algorithm = Algorithm.BCRYPT;
+
+    // Costo de BCrypt (2^strength rondas); subirlo también re-hashea al iniciar sesión
+    private int bcryptStrength = 10;
+
+    // Re-hashear en el login los hashes con otro algoritmo o un costo menor
+    private boolean upgradeOnLogin = true;
+
+    private final Pool pool = new Pool();
+
+    /**
+     * BCRYPT: {bcrypt} (y los hashes sin prefijo, anteriores a esta configuración)
+     * PBKDF2: {pbkdf2} PBKDF2-HMAC-SHA256, solo JDK (Argon2 y SCrypt requieren BouncyCastle)
+     */
+    public enum Algorithm {
+        BCRYPT,
+        PBKDF2;
+
+        public String id() {
+            return name().toLowerCase();
+        }
+    }
+
+    public static class Pool {
+
+        // Hilos dedicados al hash: acotan cuánta CPU se lleva un pico de logins
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        // Hashes en espera; con la cola llena la solicitud responde 429
+        private int queueCapacity = 100;
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(Algorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public int getBcryptStrength() {
+        return bcryptStrength;
+    }
+
+    public void setBcryptStrength(int bcryptStrength) {
+        this.bcryptStrength = bcryptStrength;
+    }
+
+    public boolean isUpgradeOnLogin() {
+        return upgradeOnLogin;
+    }
+
+    public void setUpgradeOnLogin(boolean upgradeOnLogin) {
+        this.upgradeOnLogin = upgradeOnLogin;
+    }
+
+    public Pool getPool() {
+        return pool;
+    }
+}
@@ -0,0 +1,67 @@
+package ec.edu.ups.icc.fundamentos01.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración del filtro de Bloom de nombres de producto
+ * (ver ProductNameFilter)
+ */
+@Configuration
+@ConfigurationProperties(prefix = "products.name-filter")
+public class ProductNameFilterProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Nombres para los que se dimensiona el filtro; si la tabla tiene más,
+     * se dimensiona para el doble de los que hay
+     */
+    private int expectedNames = 100_000;
+
+    /**
+     * Proporción de nombres libres que el filtro no puede descartar
+     * (esos se consultan en la BD)
+     */
+    private double falsePositiveRate = 0.01;
+
+    /**
+     * Reconstrucción desde la BD: limpia nombres borrados o renombrados y
+     * agrega los creados por otras instancias
+     */
+    private Duration rebuildInterval = Duration.ofMinutes(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getExpectedNames() {
+        return expectedNames;
+    }
+
+    public void setExpectedNames(int expectedNames) {
+        this.expectedNames = expectedNames;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public void setFalsePositiveRate(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public Duration getRebuildInterval() {
+        return rebuildInterval;
+    }
+
+    public void setRebuildInterval(Duration rebuildInterval) {
+        this.rebuildInterval = rebuildInterval;
+    }
+}
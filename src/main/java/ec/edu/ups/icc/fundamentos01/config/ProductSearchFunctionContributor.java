@@ -0,0 +1,59 @@
+package ec.edu.ups.icc.fundamentos01.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registra en HQL/JPQL las funciones de búsqueda de PostgreSQL que usa ProductRepository
+ *
+ * JPQL no conoce el operador @@ ni similarity(). Se usan sobre las columnas
+ * indexadas en V2__product_search_indexes.sql:
+ *
+ * - fts_match(searchVector, texto) → search_vector @@ websearch_to_tsquery
+ * - fts_rank(searchVector, texto)  → ts_rank (relevancia en modo FULLTEXT)
+ * - trgm_similarity(a, b)          → similarity() de pg_trgm (relevancia en modo LIKE)
+ * - token_match(name, description, regex) → nombre + descripción en minúsculas y
+ *   sin tildes, comparados con una expresión regular (modo MEMORY mientras el
+ *   índice en memoria se construye; ver ProductRepositoryImpl)
+ *
+ * El diccionario "spanish" debe coincidir con el de la columna search_vector.
+ *
+ * Hibernate lo carga por ServiceLoader:
+ * META-INF/services/org.hibernate.boot.model.FunctionContributor
+ */
+public class ProductSearchFunctionContributor implements FunctionContributor {
+
+    private static final String SEARCH_QUERY = "websearch_to_tsquery('spanish', ?2)";
+
+    /**
+     * Letras con tilde y su letra base, como las deja ProductSearchIndex.tokenize
+     * (NFD sin marcas diacríticas). Incluye las mayúsculas: con LC_CTYPE=C,
+     * lower() solo convierte letras ASCII
+     */
+    private static final String ACCENTED = "áàâäãåéèêëíìîïóòôöõúùûüñçýÿ"
+            + "ÁÀÂÄÃÅÉÈÊËÍÌÎÏÓÒÔÖÕÚÙÛÜÑÇÝ";
+    private static final String UNACCENTED = "aaaaaaeeeeiiiiooooouuuuncyy"
+            + "aaaaaaeeeeiiiiooooouuuuncy";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        BasicType<Boolean> booleanType = types.resolve(StandardBasicTypes.BOOLEAN);
+        BasicType<Double> doubleType = types.resolve(StandardBasicTypes.DOUBLE);
+
+        functionContributions.getFunctionRegistry()
+                .registerPattern("fts_match", "(?1 @@ " + SEARCH_QUERY + ")", booleanType);
+        functionContributions.getFunctionRegistry()
+                .registerPattern("fts_rank", "ts_rank(?1, " + SEARCH_QUERY + ")", doubleType);
+        functionContributions.getFunctionRegistry()
+                .registerPattern("trgm_similarity", "similarity(?1, ?2)", doubleType);
+        functionContributions.getFunctionRegistry()
+                .registerPattern("token_match",
+                        "(translate(lower(coalesce(?1, '') || ' ' || coalesce(?2, '')), '"
+                                + ACCENTED + "', '" + UNACCENTED + "') ~ ?3)",
+                        booleanType);
+    }
+}
@@ -0,0 +1,68 @@
+package ec.edu.ups.icc.fundamentos01.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de la búsqueda de productos por nombre (ver ProductServiceImpl.findWithFilters)
+ */
+@Configuration
+@ConfigurationProperties(prefix = "products.search")
+public class ProductSearchProperties {
+
+    private Mode mode = Mode.LIKE;
+
+    private final Memory memory = new Memory();
+
+    /**
+     * LIKE: subcadena en el nombre (índice de trigramas idx_products_name_trgm)
+     * FULLTEXT: palabras en nombre y descripción (índice idx_products_search_vector)
+     * MEMORY: índice invertido en memoria (ProductSearchIndex), sin consultar la BD.
+     *         Mientras el índice se construye se busca en la BD con la misma
+     *         semántica (palabras en nombre o descripción, la última como prefijo)
+     */
+    public enum Mode {
+        LIKE,
+        FULLTEXT,
+        MEMORY
+    }
+
+    public static class Memory {
+
+        // Cada cuánto se reconstruye el índice desde la BD (verificación de consistencia)
+        private Duration rebuildInterval = Duration.ofMinutes(10);
+
+        // Cada cuánto se recargan juntos los productos que solo cambiaron de stock
+        private Duration stockRefreshInterval = Duration.ofSeconds(5);
+
+        public Duration getRebuildInterval() {
+            return rebuildInterval;
+        }
+
+        public void setRebuildInterval(Duration rebuildInterval) {
+            this.rebuildInterval = rebuildInterval;
+        }
+
+        public Duration getStockRefreshInterval() {
+            return stockRefreshInterval;
+        }
+
+        public void setStockRefreshInterval(Duration stockRefreshInterval) {
+            this.stockRefreshInterval = stockRefreshInterval;
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Memory getMemory() {
+        return memory;
+    }
+}
@@ -0,0 +1,79 @@
+package ec.edu.ups.icc.fundamentos01.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de las reservas de stock (ver ProductServiceImpl.reserveStock
+ * y StockReservationLedger)
+ */
+@Configuration
+@ConfigurationProperties(prefix = "products.stock")
+public class ProductStockProperties {
+
+    private final Ledger ledger = new Ledger();
+
+    public static class Ledger {
+
+        // false: cada reserva es un UPDATE condicional en la BD
+        private boolean enabled = false;
+
+        // Unidades que la instancia toma de la BD de una vez por producto
+        private int blockSize = 100;
+
+        // Contadores por producto (menos contención entre hilos en productos calientes)
+        private int stripes = Math.min(Runtime.getRuntime().availableProcessors(), 16);
+
+        // Cada cuánto se revisan los bloques para devolver lo que sobra a la BD
+        private Duration flushInterval = Duration.ofSeconds(1);
+
+        // Un producto sin reservas durante este tiempo devuelve todo su bloque
+        private Duration idleTimeout = Duration.ofSeconds(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBlockSize() {
+            return blockSize;
+        }
+
+        public void setBlockSize(int blockSize) {
+            this.blockSize = blockSize;
+        }
+
+        public int getStripes() {
+            return stripes;
+        }
+
+        public void setStripes(int stripes) {
+            this.stripes = stripes;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+    }
+
+    public Ledger getLedger() {
+        return ledger;
+    }
+}
@@ -0,0 +1,18 @@
+package ec.edu.ups.icc.fundamentos01.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas @Scheduled (ej: reconstrucción de ProductSearchIndex)
+ * y los métodos @Async
+ *
+ * Los dos usan los ejecutores que arma Spring Boot: con
+ * spring.threads.virtual.enabled=true cada tarea corre en un hilo virtual
+ */
+@Configuration
+@EnableScheduling
+@EnableAsync
+public class SchedulingConfig {
+}
@@ -0,0 +1,57 @@
+package ec.edu.ups.icc.fundamentos01.core.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+/**
+ * Carga de entradas de cache que consultan la BD, sin bloquear el mapa
+ *
+ * Cache.get(key, loader) de Caffeine ejecuta el loader dentro de
+ * ConcurrentHashMap.compute, con el lock del bucket tomado. Con hilos
+ * virtuales (spring.threads.virtual.enabled) una consulta JDBC dentro de ese
+ * lock fija el hilo virtual a su hilo portador (pinning) mientras dura.
+ *
+ * getOrLoad hace lo mismo con un AsyncCache, pero fuera del lock:
+ * - Dentro de compute solo se registra un CompletableFuture vacío
+ * - El hilo que lo registró ejecuta la carga y lo completa
+ * - Los demás hilos que piden la misma clave esperan ese future (una sola
+ *   consulta por clave, igual que antes)
+ * - Si la carga falla, Caffeine quita la entrada y la excepción se propaga
+ *   a todos los que esperaban
+ */
+public final class CacheLoads {
+
+    private CacheLoads() {
+    }
+
+    public static <K, V> V getOrLoad(AsyncCache<K, V> cache, K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> created);
+
+        if (future == created) {
+            try {
+                V value = loader.apply(key);
+                created.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
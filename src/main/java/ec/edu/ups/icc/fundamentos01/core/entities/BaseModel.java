@@ -6,8 +6,11 @@ import java.time.LocalDateTime;
 @MappedSuperclass
 public abstract class BaseModel {
 
+    // Secuencia por tabla (<tabla>_seq, de 50 en 50, ver V3): Hibernate reserva
+    // los IDs en memoria y puede agrupar los INSERT en lotes JDBC.
+    // Con IDENTITY cada INSERT debía ejecutarse solo para conocer su ID.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     private Long id;
 
     private LocalDateTime createdAt;
@@ -15,6 +18,12 @@ public abstract class BaseModel {
 
     private boolean deleted;
 
+    // Bloqueo optimista (ver V4): cada UPDATE exige la versión leída y la
+    // incrementa. Dos escrituras concurrentes sobre la misma fila no se pisan:
+    // la segunda falla (409) sin tomar locks de fila en la BD.
+    @Version
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         this.deleted = false;
@@ -51,6 +60,14 @@ public abstract class BaseModel {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public boolean isDeleted() {
         return deleted;
     }
@@ -0,0 +1,123 @@
+package ec.edu.ups.icc.fundamentos01.core.web;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Solicitudes condicionales
+ *
+ * - GET (If-None-Match / If-Modified-Since): si la versión que tiene el
+ *   cliente sigue vigente se responde 304 sin ejecutar la consulta del cuerpo
+ *   ni serializarlo. La versión debe leerse ANTES que los datos: así nunca es
+ *   más nueva que el cuerpo que acompaña.
+ * - GET de páginas y listas (okByContent): el ETag sale del cuerpo ya armado.
+ *   Una versión leída aparte tendría que recorrer todo el catálogo en cada
+ *   página; aquí la consulta ya está acotada y el 304 ahorra la transferencia.
+ * - PUT / PATCH (If-Match / If-Unmodified-Since): si el cliente modificó a
+ *   partir de una versión vieja se responde 412 sin escribir. La comparación
+ *   la hace el servicio sobre la entidad que ya carga para escribir.
+ */
+public final class ConditionalResponses {
+
+    private ConditionalResponses() {
+    }
+
+    /**
+     * @param request WebRequest de la solicitud (encabezados condicionales)
+     * @param version ETag / Last-Modified actuales; null si no se conocen sin
+     *                consultar de más (200 sin validadores)
+     * @param body    Cuerpo, solo se arma si el cliente no tiene esta versión
+     * @return 200 con validadores, o null si ya se respondió 304
+     */
+    public static <T> ResponseEntity<T> ok(WebRequest request, ResourceVersion version, Supplier<T> body) {
+        if (version == null) {
+            return ResponseEntity.ok(body.get());
+        }
+        if (request.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+            // checkNotModified ya dejó el 304 con ETag y Last-Modified
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(version.etag())
+                // Guardar, pero revalidar en cada uso
+                .cacheControl(CacheControl.noCache());
+        if (version.lastModified() != null) {
+            response.lastModified(version.lastModified());
+        }
+        return response.body(body.get());
+    }
+
+    /**
+     * GET condicional con el ETag calculado del cuerpo (como el
+     * ShallowEtagHeaderFilter de Spring, pero solo donde se usa)
+     *
+     * @param body         Cuerpo ya armado
+     * @param objectMapper El mismo que serializa las respuestas
+     * @return 200 con ETag, o null si ya se respondió 304
+     */
+    public static <T> ResponseEntity<T> okByContent(WebRequest request, T body, ObjectMapper objectMapper) {
+        byte[] content;
+        try {
+            content = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta", e);
+        }
+        return ok(request, ResourceVersion.ofContent(content), () -> body);
+    }
+
+    /**
+     * Lee If-Match / If-Unmodified-Since de una escritura; se validan en el
+     * servicio contra la entidad que se modifica (ver WritePrecondition)
+     *
+     * @return la precondición, WritePrecondition.NONE si la escritura no es condicional
+     */
+    public static WritePrecondition writePrecondition(WebRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        String[] ifMatch = request.getHeaderValues(HttpHeaders.IF_MATCH);
+        if (ifMatch != null) {
+            headers.addAll(HttpHeaders.IF_MATCH, List.of(ifMatch));
+        }
+        String ifUnmodifiedSince = request.getHeader(HttpHeaders.IF_UNMODIFIED_SINCE);
+        if (ifUnmodifiedSince != null) {
+            headers.set(HttpHeaders.IF_UNMODIFIED_SINCE, ifUnmodifiedSince);
+        }
+
+        if (!headers.getIfMatch().isEmpty()) {
+            // Comparación fuerte: un ETag débil (W/) nunca cumple If-Match
+            Set<Long> revisions = headers.getIfMatch().stream()
+                    .map(ResourceVersion::revisionOf)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            return new WritePrecondition(revisions, headers.getIfMatch().contains("*"), null);
+        }
+        long since = headers.getIfUnmodifiedSince();
+        if (since != -1) {
+            return new WritePrecondition(null, false, Instant.ofEpochMilli(since));
+        }
+        return WritePrecondition.NONE;
+    }
+
+    /**
+     * 200 de una escritura, con los validadores de la versión resultante para
+     * que el cliente pueda encadenar la siguiente escritura con If-Match
+     */
+    public static <T> ResponseEntity<T> written(ResourceVersion version, T body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(version.etag());
+        if (version.lastModified() != null) {
+            response.lastModified(version.lastModified());
+        }
+        return response.body(body);
+    }
+}
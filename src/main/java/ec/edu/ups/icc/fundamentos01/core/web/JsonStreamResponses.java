@@ -0,0 +1,103 @@
+package ec.edu.ups.icc.fundamentos01.core.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Respuestas JSON escritas en streaming con JsonGenerator de Jackson
+ *
+ * - ndjson: un objeto JSON por línea (application/x-ndjson)
+ * - array:  un arreglo JSON normal, escrito elemento a elemento (chunked)
+ *
+ * Los elementos se serializan a medida que la fuente los entrega y el
+ * generador vuelca su buffer al socket: la memoria no crece con el tamaño
+ * del resultado. Los errores de validación deben lanzarse ANTES de llamar a
+ * estos métodos, cuando todavía se puede responder 4xx.
+ */
+@Component
+public class JsonStreamResponses {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    private final ObjectMapper objectMapper;
+
+    public JsonStreamResponses(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * NDJSON a partir de un Stream (se cierra al terminar)
+     */
+    public <T> ResponseEntity<StreamingResponseBody> ndjson(Stream<T> items) {
+        return ndjson(action -> {
+            try (items) {
+                items.forEach(action);
+            }
+        });
+    }
+
+    /**
+     * NDJSON a partir de una fuente que entrega los elementos uno a uno
+     *
+     * @param source Recibe la acción a ejecutar por cada elemento (ej: un método
+     *               de servicio que recorre la BD por lotes)
+     */
+    public <T> ResponseEntity<StreamingResponseBody> ndjson(Consumer<Consumer<T>> source) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = generator(out)) {
+                source.accept(item -> {
+                    write(generator, item);
+                    writeRaw(generator, "\n");
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /**
+     * Arreglo JSON a partir de una fuente que entrega los elementos uno a uno
+     */
+    public <T> ResponseEntity<StreamingResponseBody> array(Consumer<Consumer<T>> source) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = generator(out)) {
+                generator.writeStartArray();
+                source.accept(item -> write(generator, item));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private JsonGenerator generator(OutputStream out) throws IOException {
+        // El contenedor cierra la respuesta; el generador solo vacía su buffer
+        return objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    private static void write(JsonGenerator generator, Object item) {
+        try {
+            generator.writeObject(item);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeRaw(JsonGenerator generator, String text) {
+        try {
+            generator.writeRaw(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ec.edu.ups.icc.fundamentos01.core.web;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.util.DigestUtils;
+
+/**
+ * Validadores HTTP de una respuesta: ETag y Last-Modified
+ *
+ * Se calculan sin armar el cuerpo (ver ConditionalResponses), a partir de
+ * la versión de los datos; o, para páginas y listas, a partir del contenido
+ * ya serializado (ofContent).
+ *
+ * @param etag         ETag completo (con comillas, W/ si es débil)
+ * @param lastModified Última modificación, null si no se conoce
+ */
+public record ResourceVersion(String etag, Instant lastModified) {
+
+    /**
+     * ETag débil armado con las partes de la versión (ej: W/"25-1a2b-3c4d")
+     * Débil: identifica el contenido, no los bytes exactos de la respuesta.
+     */
+    public static ResourceVersion weak(Instant lastModified, Object... parts) {
+        return new ResourceVersion("W/\"" + tag(parts) + "\"", lastModified);
+    }
+
+    /**
+     * ETag débil con el hash del cuerpo serializado (ej: W/"9e107d9d372bb682...")
+     * Sin Last-Modified: una página no sabe cuándo salió un producto de ella.
+     */
+    public static ResourceVersion ofContent(byte[] content) {
+        return weak(null, DigestUtils.md5DigestAsHex(content));
+    }
+
+    /**
+     * ETag fuerte de una entidad, empezando por su versión (ej: "3-1a2b-3c4d")
+     * Fuerte: If-Match solo acepta comparación fuerte (RFC 9110).
+     */
+    public static ResourceVersion strong(long revision, Instant lastModified, Object... parts) {
+        String tag = tag(Stream.concat(Stream.of(revision), Arrays.stream(parts)).toArray());
+        return new ResourceVersion("\"" + tag + "\"", lastModified);
+    }
+
+    /**
+     * Versión (@Version) con la que empieza un ETag fuerte de strong()
+     *
+     * @return la versión, o null si el ETag es débil o no lo generó esta API
+     */
+    public static Long revisionOf(String etag) {
+        if (etag == null || !etag.startsWith("\"")) {
+            return null;
+        }
+        String tag = etag.substring(1);
+        int end = tag.indexOf('-');
+        try {
+            return Long.valueOf(end >= 0 ? tag.substring(0, end) : tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String tag(Object... parts) {
+        return Arrays.stream(parts)
+                .map(part -> Objects.toString(part, "0"))
+                .collect(Collectors.joining("-"));
+    }
+
+    /**
+     * Milisegundos para WebRequest.checkNotModified (-1 = sin Last-Modified)
+     */
+    public long lastModifiedMillis() {
+        return lastModified != null ? lastModified.toEpochMilli() : -1;
+    }
+}
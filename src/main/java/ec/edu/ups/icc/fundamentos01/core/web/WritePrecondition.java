@@ -0,0 +1,50 @@
+package ec.edu.ups.icc.fundamentos01.core.web;
+
+import java.time.Instant;
+import java.util.Set;
+
+import ec.edu.ups.icc.fundamentos01.exception.domain.PreconditionFailedException;
+
+/**
+ * Precondición de una escritura condicional (If-Match / If-Unmodified-Since)
+ *
+ * Se evalúa dentro de la transacción de escritura contra la entidad que se va
+ * a modificar, sin una lectura aparte antes de escribir. Desde esa comparación
+ * hasta el commit lo cubre @Version (UPDATE ... WHERE version = ?).
+ *
+ * Solo se compara la versión de la fila: el resto del ETag (owner, categorías)
+ * describe la respuesta, no lo que la escritura modifica.
+ *
+ * @param revisions       Versiones (@Version) aceptadas por If-Match; null si
+ *                        no vino If-Match, vacío si ningún ETag es de esta API
+ * @param anyRevision     If-Match: * (basta con que el recurso exista)
+ * @param unmodifiedSince If-Unmodified-Since, null si no vino
+ */
+public record WritePrecondition(Set<Long> revisions, boolean anyRevision, Instant unmodifiedSince) {
+
+    /**
+     * Escritura no condicional
+     */
+    public static final WritePrecondition NONE = new WritePrecondition(null, false, null);
+
+    /**
+     * @param revision     Versión actual de la entidad
+     * @param lastModified Última modificación de la entidad, null si no se conoce
+     * @throws PreconditionFailedException (412) si el cliente tiene una versión vieja
+     */
+    public void check(long revision, Instant lastModified) {
+        if (revisions != null) {
+            if (!anyRevision && !revisions.contains(revision)) {
+                throw new PreconditionFailedException(
+                        "El recurso cambió desde la versión indicada en If-Match; vuelve a consultarlo");
+            }
+            // Con If-Match presente se ignora If-Unmodified-Since (RFC 9110)
+            return;
+        }
+        if (unmodifiedSince != null && lastModified != null
+                && lastModified.getEpochSecond() > unmodifiedSince.getEpochSecond()) {
+            throw new PreconditionFailedException(
+                    "El recurso cambió después de la fecha indicada en If-Unmodified-Since; vuelve a consultarlo");
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ec.edu.ups.icc.fundamentos01.exception.domain;
+
+import org.springframework.http.HttpStatus;
+import ec.edu.ups.icc.fundamentos01.exception.base.ApplicationException;
+
+/**
+ * Excepción lanzada cuando no se cumple una precondición HTTP de la solicitud.
+ * 
+ * Corresponde al código de estado HTTP 412 Precondition Failed.
+ * 
+ * Cuándo usar:
+ * - Cuando el ETag de If-Match ya no corresponde a la versión actual
+ * - Cuando el recurso cambió después de If-Unmodified-Since
+ * 
+ * Ejemplo:
+ * 
+ * <pre>
+ * ConditionalResponses.writePrecondition(request).check(entity.getVersion(), lastModified);
+ * </pre>
+ */
+public class PreconditionFailedException extends ApplicationException {
+
+    /**
+     * Constructor que acepta un mensaje descriptivo de la precondición.
+     * 
+     * @param message Mensaje explicando qué precondición falló
+     */
+    public PreconditionFailedException(String message) {
+        super(HttpStatus.PRECONDITION_FAILED, message);
+    }
+}
@@ -0,0 +1,37 @@
+package ec.edu.ups.icc.fundamentos01.exception.domain;
+
+import org.springframework.http.HttpStatus;
+import ec.edu.ups.icc.fundamentos01.exception.base.ApplicationException;
+
+/**
+ * Excepción lanzada cuando el servidor no puede aceptar más trabajo de un tipo
+ * por el momento.
+ *
+ * Corresponde al código de estado HTTP 429 Too Many Requests (con Retry-After).
+ *
+ * Cuándo usar:
+ * - Cuando la cola de un pool acotado está llena (ej: hash de contraseñas)
+ *
+ * Ejemplo:
+ *
+ * <pre>
+ * throw new TooManyRequestsException("Demasiadas solicitudes de autenticación", 1);
+ * </pre>
+ */
+public class TooManyRequestsException extends ApplicationException {
+
+    private final long retryAfterSeconds;
+
+    /**
+     * @param message           Mensaje explicando qué está saturado
+     * @param retryAfterSeconds Segundos sugeridos antes de reintentar
+     */
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(HttpStatus.TOO_MANY_REQUESTS, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
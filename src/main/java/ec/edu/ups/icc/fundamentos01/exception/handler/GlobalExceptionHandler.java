@@ -1,8 +1,13 @@
 package ec.edu.ups.icc.fundamentos01.exception.handler;
 
 import ec.edu.ups.icc.fundamentos01.exception.base.ApplicationException;
+import ec.edu.ups.icc.fundamentos01.exception.domain.TooManyRequestsException;
 import ec.edu.ups.icc.fundamentos01.exception.response.ErrorResponse;
 import jakarta.servlet.http.HttpServletRequest;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -52,6 +57,25 @@ public class GlobalExceptionHandler {
                 .body(response);
     }
 
+    /**
+     * Maneja TooManyRequestsException: igual que ApplicationException, más el
+     * encabezado Retry-After para que el cliente sepa cuándo reintentar.
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequests(
+            TooManyRequestsException ex,
+            HttpServletRequest request) {
+        ErrorResponse response = new ErrorResponse(
+                ex.getStatus(),
+                ex.getMessage(),
+                request.getRequestURI());
+
+        return ResponseEntity
+                .status(ex.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response);
+    }
+
     /**
      * Maneja errores de validación de Bean Validation (@Valid).
      * 
@@ -84,6 +108,55 @@ public class GlobalExceptionHandler {
                 .body(response);
     }
 
+    /**
+     * Maneja conflictos de bloqueo optimista (@Version en BaseModel).
+     * 
+     * Otra solicitud modificó la misma fila entre la lectura y la escritura:
+     * el cliente debe volver a leer el recurso y reintentar.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(
+            OptimisticLockingFailureException ex,
+            HttpServletRequest request) {
+        ErrorResponse response = new ErrorResponse(
+                HttpStatus.CONFLICT,
+                "El recurso fue modificado por otra solicitud; vuelve a consultarlo e intenta de nuevo",
+                request.getRequestURI());
+
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(response);
+    }
+
+    /**
+     * Maneja violaciones de restricciones de la BD (ej: índice único uk_products_name).
+     * 
+     * Los servicios validan antes de guardar, pero dos solicitudes concurrentes
+     * pueden pasar la validación a la vez: la BD rechaza la segunda.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolation(
+            DataIntegrityViolationException ex,
+            HttpServletRequest request) {
+        String message = "uk_products_name".equals(constraintName(ex))
+                ? "Ya existe un producto con ese nombre"
+                : "La operación viola una restricción de integridad de los datos";
+        ErrorResponse response = new ErrorResponse(
+                HttpStatus.CONFLICT,
+                message,
+                request.getRequestURI());
+
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(response);
+    }
+
+    private static String constraintName(DataIntegrityViolationException ex) {
+        return ex.getCause() instanceof ConstraintViolationException violation
+                ? violation.getConstraintName()
+                : null;
+    }
+
     /**
      * Maneja AuthorizationDeniedException (Spring Security 6.x).
      * Se lanza cuando @PreAuthorize evalúa a false para un usuario autenticado.
@@ -18,10 +18,21 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ec.edu.ups.icc.fundamentos01.core.web.ConditionalResponses;
+import ec.edu.ups.icc.fundamentos01.core.web.JsonStreamResponses;
+import ec.edu.ups.icc.fundamentos01.core.web.ResourceVersion;
+import ec.edu.ups.icc.fundamentos01.products.dtos.BulkProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.BulkUpdateProductDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.CreateProductDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.CursorPageDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.PartialUpdateProductDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.StockQuantityDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.UpdateProductDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.ValidateProductNameDto;
 import ec.edu.ups.icc.fundamentos01.products.services.ProductService;
@@ -33,9 +44,14 @@ import jakarta.validation.Valid;
 public class ProductController {
 
     private final ProductService productService;
+    private final JsonStreamResponses jsonStreams;
+    private final ObjectMapper objectMapper;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, JsonStreamResponses jsonStreams,
+            ObjectMapper objectMapper) {
         this.productService = productService;
+        this.jsonStreams = jsonStreams;
+        this.objectMapper = objectMapper;
     }
 
     // ============== ENDPOINTS DE CREACIÓN ==============
@@ -53,7 +69,38 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    /**
+     * Crear productos en lote
+     * POST /api/products/bulk
+     * 
+     * Body: arreglo de CreateProductDto (máximo 5000)
+     * Respuesta: un resultado por fila (CREATED con su ID o FAILED con sus errores);
+     * las filas inválidas no impiden crear las demás
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkProductResponseDto> bulkCreate(@RequestBody List<CreateProductDto> items) {
+        return ResponseEntity.ok(productService.bulkCreate(items));
+    }
+
+    /**
+     * Actualizar productos en lote
+     * PUT /api/products/bulk
+     * 
+     * Body: arreglo de BulkUpdateProductDto (UpdateProductDto + id)
+     * Cada fila aplica la misma validación de ownership que PUT /api/products/{id}
+     */
+    @PutMapping("/bulk")
+    public ResponseEntity<BulkProductResponseDto> bulkUpdate(
+            @RequestBody List<BulkUpdateProductDto> items,
+            @AuthenticationPrincipal UserDetailsImpl currentUser) {
+        return ResponseEntity.ok(productService.bulkUpdate(items, currentUser));
+    }
+
     // ============== ENDPOINTS DE CONSULTA ==============
+    //
+    // Las lecturas paginadas y por ID responden con ETag / Last-Modified y
+    // Cache-Control: no-cache. Con If-None-Match (o If-Modified-Since) vigente
+    // responden 304 sin consultar ni serializar los productos.
 
     /**
      * Listar TODOS los productos (sin paginación) - SOLO ADMIN
@@ -61,12 +108,25 @@ public class ProductController {
      * 
      * Este endpoint muestra información sensible de todos los usuarios
      * Por eso está protegido con @PreAuthorize
+     * 
+     * Devuelve el mismo arreglo JSON de siempre, pero escrito en streaming
+     * por lotes de la BD: la memoria no depende del tamaño del catálogo y no
+     * se retiene una conexión mientras el cliente lee
      */
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<ProductResponseDto>> findAll() {
-        List<ProductResponseDto> products = productService.findAll();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<StreamingResponseBody> findAll() {
+        return jsonStreams.array(productService::exportAll);
+    }
+
+    /**
+     * Exportar TODOS los productos como NDJSON (un producto por línea) - SOLO ADMIN
+     * GET /api/products/export
+     */
+    @GetMapping(value = "/export", produces = JsonStreamResponses.NDJSON)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> export() {
+        return jsonStreams.ndjson(productService::exportAll);
     }
 
     /**
@@ -79,10 +139,11 @@ public class ProductController {
     public ResponseEntity<Page<ProductResponseDto>> findAllPaginado(
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "10") int size,
-            @RequestParam(value = "sort", defaultValue = "id") String[] sort) {
+            @RequestParam(value = "sort", defaultValue = "id") String[] sort,
+            WebRequest request) {
 
-        Page<ProductResponseDto> products = productService.findAll(page, size, sort);
-        return ResponseEntity.ok(products);
+        // ETag del contenido de la página: sin otro recorrido del catálogo
+        return ConditionalResponses.okByContent(request, productService.findAll(page, size, sort), objectMapper);
     }
 
     /**
@@ -95,15 +156,41 @@ public class ProductController {
     public ResponseEntity<Slice<ProductResponseDto>> findAllSlice(
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "10") int size,
-            @RequestParam(value = "sort", defaultValue = "id") String[] sort) {
+            @RequestParam(value = "sort", defaultValue = "id") String[] sort,
+            WebRequest request) {
 
-        Slice<ProductResponseDto> products = productService.findAllSlice(page, size, sort);
-        return ResponseEntity.ok(products);
+        return ConditionalResponses.okByContent(request, productService.findAllSlice(page, size, sort),
+                objectMapper);
+    }
+
+    /**
+     * Listar productos con paginación por cursor (keyset)
+     * GET /api/products/cursor?size=10&sort=price,desc
+     * GET /api/products/cursor?size=10&cursor={nextCursor de la respuesta anterior}
+     * 
+     * A diferencia de /paginated no usa OFFSET: el costo de una página profunda
+     * es el mismo que el de la primera. No devuelve total ni número de página.
+     * 
+     * Nota: Requiere autenticación por .anyRequest().authenticated()
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageDto<ProductResponseDto>> findAllByCursor(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "sort", defaultValue = "id") String[] sort,
+            WebRequest request) {
+
+        return ConditionalResponses.okByContent(request, productService.findAllByCursor(cursor, size, sort),
+                objectMapper);
     }
 
     /**
      * Listar productos con filtros opcionales y paginación
      * GET /api/products/search?name=laptop&minPrice=500&page=0&size=5
+     * GET /api/products/search?name=laptop gamer&ranked=true
+     * 
+     * La búsqueda por nombre usa el motor de products.search.mode (like o fulltext)
+     * ranked=true ordena por relevancia respecto a "name" e ignora "sort"
      * 
      * Nota: Requiere autenticación por .anyRequest().authenticated()
      */
@@ -113,14 +200,15 @@ public class ProductController {
             @RequestParam(value = "minPrice", required = false) Double minPrice,
             @RequestParam(value = "maxPrice", required = false) Double maxPrice,
             @RequestParam(value = "categoryId", required = false) Long categoryId,
+            @RequestParam(value = "ranked", defaultValue = "false") boolean ranked,
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "10") int size,
-            @RequestParam(value = "sort", defaultValue = "id") String[] sort) {
+            @RequestParam(value = "sort", defaultValue = "id") String[] sort,
+            WebRequest request) {
 
-        Page<ProductResponseDto> products = productService.findWithFilters(
-                name, minPrice, maxPrice, categoryId, page, size, sort);
-
-        return ResponseEntity.ok(products);
+        ResourceVersion version = productService.findVersionWithFilters(name, minPrice, maxPrice, categoryId);
+        return ConditionalResponses.ok(request, version, () -> productService.findWithFilters(
+                name, minPrice, maxPrice, categoryId, ranked, page, size, sort));
     }
 
     /**
@@ -130,9 +218,10 @@ public class ProductController {
      * Nota: Requiere autenticación por .anyRequest().authenticated()
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponseDto> findById(@PathVariable("id") String id) {
-        ProductResponseDto product = productService.findOne(Long.parseLong(id));
-        return ResponseEntity.ok(product);
+    public ResponseEntity<ProductResponseDto> findById(@PathVariable("id") String id, WebRequest request) {
+        Long productId = Long.parseLong(id);
+        ResourceVersion version = productService.findVersion(productId);
+        return ConditionalResponses.ok(request, version, () -> productService.findOne(productId));
     }
 
     /**
@@ -150,12 +239,13 @@ public class ProductController {
             @RequestParam(value = "categoryId", required = false) Long categoryId,
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "10") int size,
-            @RequestParam(value = "sort", defaultValue = "id") String[] sort) {
-
-        Page<ProductResponseDto> products = productService.findByUserIdWithFilters(
-                userId, name, minPrice, maxPrice, categoryId, page, size, sort);
+            @RequestParam(value = "sort", defaultValue = "id") String[] sort,
+            WebRequest request) {
 
-        return ResponseEntity.ok(products);
+        ResourceVersion version = productService.findVersionByUserIdWithFilters(
+                userId, name, minPrice, maxPrice, categoryId);
+        return ConditionalResponses.ok(request, version, () -> productService.findByUserIdWithFilters(
+                userId, name, minPrice, maxPrice, categoryId, page, size, sort));
     }
 
     /**
@@ -166,9 +256,57 @@ public class ProductController {
      */
     @GetMapping("/category/{categoryId}")
     public ResponseEntity<List<ProductResponseDto>> findByCategoryId(
+            @PathVariable("categoryId") Long categoryId,
+            WebRequest request) {
+        return ConditionalResponses.okByContent(request, productService.findByCategoryId(categoryId), objectMapper);
+    }
+
+    /**
+     * Productos por categoría con paginación
+     * GET /api/products/category/{categoryId}/paginated?page=0&size=10&sort=price,desc
+     * 
+     * Nota: Requiere autenticación por .anyRequest().authenticated()
+     */
+    @GetMapping("/category/{categoryId}/paginated")
+    public ResponseEntity<Page<ProductResponseDto>> findByCategoryIdPaginated(
+            @PathVariable("categoryId") Long categoryId,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "sort", defaultValue = "id") String[] sort,
+            WebRequest request) {
+
+        return ConditionalResponses.okByContent(request,
+                productService.findByCategoryId(categoryId, page, size, sort), objectMapper);
+    }
+
+    /**
+     * Productos por categoría con paginación por cursor (keyset)
+     * GET /api/products/category/{categoryId}/cursor?size=10&cursor={nextCursor}
+     * 
+     * Nota: Requiere autenticación por .anyRequest().authenticated()
+     */
+    @GetMapping("/category/{categoryId}/cursor")
+    public ResponseEntity<CursorPageDto<ProductResponseDto>> findByCategoryIdByCursor(
+            @PathVariable("categoryId") Long categoryId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "sort", defaultValue = "id") String[] sort,
+            WebRequest request) {
+
+        return ConditionalResponses.okByContent(request,
+                productService.findByCategoryIdByCursor(categoryId, cursor, size, sort), objectMapper);
+    }
+
+    /**
+     * Todos los productos de una categoría como NDJSON (un producto por línea)
+     * GET /api/products/category/{categoryId}/stream
+     * 
+     * Nota: Requiere autenticación por .anyRequest().authenticated()
+     */
+    @GetMapping(value = "/category/{categoryId}/stream", produces = JsonStreamResponses.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamByCategoryId(
             @PathVariable("categoryId") Long categoryId) {
-        List<ProductResponseDto> products = productService.findByCategoryId(categoryId);
-        return ResponseEntity.ok(products);
+        return jsonStreams.ndjson(productService.streamByCategoryId(categoryId));
     }
 
     // ============== ENDPOINTS DE MODIFICACIÓN ==============
@@ -183,14 +321,20 @@ public class ProductController {
      * El servicio valida:
      * - Si eres USER → Solo puedes actualizar TUS productos
      * - Si eres ADMIN o MODERATOR → Puedes actualizar CUALQUIER producto
+     * 
+     * Escritura condicional (opcional): If-Match con el ETag de GET /{id}.
+     * Si el producto cambió desde entonces → 412; si otra escritura gana
+     * la carrera durante esta → 409. La respuesta trae el ETag nuevo.
      */
     @PutMapping("/{id}")
     public ResponseEntity<ProductResponseDto> update(
             @PathVariable("id") Long id,
             @Valid @RequestBody UpdateProductDto dto,
-            @AuthenticationPrincipal UserDetailsImpl currentUser) {
-        ProductResponseDto updated = productService.update(id, dto, currentUser);
-        return ResponseEntity.ok(updated);
+            @AuthenticationPrincipal UserDetailsImpl currentUser,
+            WebRequest request) {
+        ProductResponseDto updated = productService.update(id, dto, currentUser,
+                ConditionalResponses.writePrecondition(request));
+        return ConditionalResponses.written(productService.findVersion(id), updated);
     }
 
     /**
@@ -212,12 +356,55 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
+    // ============== ENDPOINTS DE STOCK ==============
+
+    /**
+     * Reservar stock
+     * POST /api/products/{id}/stock/reserve
+     * 
+     * Body: { "quantity": 2 }
+     * Descuenta de forma atómica: 204 si se reservó, 409 si no alcanza el stock.
+     * Sin lecturas previas: reservas concurrentes nunca venden de más.
+     */
+    @PostMapping("/{id}/stock/reserve")
+    public ResponseEntity<Void> reserveStock(
+            @PathVariable("id") Long id,
+            @Valid @RequestBody StockQuantityDto dto) {
+        productService.reserveStock(id, dto.quantity);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Liberar stock reservado
+     * POST /api/products/{id}/stock/release
+     * 
+     * Body: { "quantity": 2 }
+     * Las reservas no se registran una por una, así que no se puede comprobar
+     * que lo liberado se haya reservado antes: solo ADMIN (el proceso que
+     * cancela o expira checkouts), hasta 10000 unidades por llamada y sin
+     * pasar del máximo de la columna stock (409).
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/{id}/stock/release")
+    public ResponseEntity<Void> releaseStock(
+            @PathVariable("id") Long id,
+            @Valid @RequestBody StockQuantityDto dto) {
+        productService.releaseStock(id, dto.quantity);
+        return ResponseEntity.noContent().build();
+    }
+
     // ============== ENDPOINTS ADICIONALES (EXISTENTES) ==============
 
+    /**
+     * Escritura condicional con If-Match, igual que PUT /{id}
+     */
     @PatchMapping("/{id}")
-    public ProductResponseDto partialUpdate(@PathVariable("id") Long id,
-            @Valid @RequestBody PartialUpdateProductDto dto) {
-        return productService.partialUpdate(id, dto);
+    public ResponseEntity<ProductResponseDto> partialUpdate(@PathVariable("id") Long id,
+            @Valid @RequestBody PartialUpdateProductDto dto,
+            WebRequest request) {
+        ProductResponseDto updated = productService.partialUpdate(id, dto,
+                ConditionalResponses.writePrecondition(request));
+        return ConditionalResponses.written(productService.findVersion(id), updated);
     }
 
     @PostMapping("/validate-name")
@@ -0,0 +1,26 @@
+package ec.edu.ups.icc.fundamentos01.products.dtos;
+
+import java.util.List;
+
+/**
+ * Respuesta de una operación bulk: totales y un resultado por fila (en orden)
+ */
+public class BulkProductResponseDto {
+
+    public int total;
+    public int succeeded;
+    public int failed;
+    public List<BulkProductResultDto> results;
+
+    public BulkProductResponseDto() {
+    }
+
+    public BulkProductResponseDto(List<BulkProductResultDto> results) {
+        this.results = results;
+        this.total = results.size();
+        this.failed = (int) results.stream()
+                .filter(result -> result.status == BulkProductResultDto.Status.FAILED)
+                .count();
+        this.succeeded = total - failed;
+    }
+}
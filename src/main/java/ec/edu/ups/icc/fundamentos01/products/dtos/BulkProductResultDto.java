@@ -0,0 +1,43 @@
+package ec.edu.ups.icc.fundamentos01.products.dtos;
+
+import java.util.Map;
+
+/**
+ * Resultado de una fila de una operación bulk
+ * 
+ * - index: posición de la fila en la solicitud (desde 0)
+ * - id: ID del producto creado/actualizado (null si falló)
+ * - errors: campo → mensaje, igual que los errores de validación (null si no falló)
+ */
+public class BulkProductResultDto {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        FAILED
+    }
+
+    public int index;
+    public Status status;
+    public Long id;
+    public Map<String, String> errors;
+
+    public BulkProductResultDto() {
+    }
+
+    public static BulkProductResultDto succeeded(int index, Status status, Long id) {
+        BulkProductResultDto result = new BulkProductResultDto();
+        result.index = index;
+        result.status = status;
+        result.id = id;
+        return result;
+    }
+
+    public static BulkProductResultDto failed(int index, Map<String, String> errors) {
+        BulkProductResultDto result = new BulkProductResultDto();
+        result.index = index;
+        result.status = Status.FAILED;
+        result.errors = errors;
+        return result;
+    }
+}
@@ -0,0 +1,12 @@
+package ec.edu.ups.icc.fundamentos01.products.dtos;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Fila de PUT /api/products/bulk: mismos campos que UpdateProductDto más el ID
+ */
+public class BulkUpdateProductDto extends UpdateProductDto {
+
+    @NotNull(message = "El ID del producto es obligatorio")
+    public Long id;
+}
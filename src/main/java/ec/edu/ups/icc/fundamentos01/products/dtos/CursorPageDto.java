@@ -0,0 +1,27 @@
+package ec.edu.ups.icc.fundamentos01.products.dtos;
+
+import java.util.List;
+
+/**
+ * Respuesta de paginación por cursor (keyset)
+ * 
+ * - No tiene número de página ni total: cada página se pide con el cursor
+ *   que devolvió la anterior
+ * - nextCursor es null cuando no hay más resultados
+ */
+public class CursorPageDto<T> {
+    public List<T> content;
+    public int size;
+    public String nextCursor;
+    public boolean hasNext;
+
+    public CursorPageDto() {
+    }
+
+    public CursorPageDto(List<T> content, int size, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+    }
+}
@@ -0,0 +1,16 @@
+package ec.edu.ups.icc.fundamentos01.products.dtos;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Cuerpo de POST /api/products/{id}/stock/reserve y /release
+ */
+public class StockQuantityDto {
+
+    @NotNull(message = "La cantidad es obligatoria")
+    @Min(value = 1, message = "La cantidad debe ser al menos 1")
+    @Max(value = 10000, message = "La cantidad no puede exceder 10000")
+    public Integer quantity;
+}
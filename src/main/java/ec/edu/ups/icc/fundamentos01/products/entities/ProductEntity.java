@@ -36,6 +36,11 @@ public class ProductEntity extends BaseModel {
     )
     private Set<CategoryEntity> categories = new HashSet<>();
 
+    // Columna generada por PostgreSQL (V2__product_search_indexes.sql): solo lectura.
+    // Se mapea para poder usarla en consultas (fts_match / fts_rank), no tiene getter.
+    @Column(name = "search_vector", insertable = false, updatable = false, columnDefinition = "tsvector")
+    private String searchVector;
+
     public Set<CategoryEntity> getCategories() {
         return categories;
     }
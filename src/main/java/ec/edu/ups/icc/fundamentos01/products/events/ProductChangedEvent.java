@@ -0,0 +1,74 @@
+package ec.edu.ups.icc.fundamentos01.products.events;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Evento publicado cuando se crea, modifica o elimina un producto
+ *
+ * Lo escuchan los componentes que guardan copias de productos en memoria:
+ * - ProductSearchIndex: índice invertido para búsqueda (products.search.mode=memory)
+ * - CategoryProductCountService: conteo de productos por categoría
+ */
+public class ProductChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        /**
+         * Solo cambió el stock (reservas, liberaciones, bloques del ledger):
+         * nombre, precio, owner y categorías siguen igual
+         */
+        STOCK
+    }
+
+    private final List<Long> productIds;
+    private final Type type;
+    private final Set<Long> categoryIds;
+
+    /**
+     * Cambio que no toca las categorías del producto
+     *
+     * @param productId ID del producto
+     * @param type      Tipo de cambio
+     */
+    public ProductChangedEvent(Long productId, Type type) {
+        this(productId, type, Set.of());
+    }
+
+    /**
+     * @param productId   ID del producto
+     * @param type        Tipo de cambio
+     * @param categoryIds Categorías que ganaron o perdieron el producto
+     */
+    public ProductChangedEvent(Long productId, Type type, Set<Long> categoryIds) {
+        this(List.of(productId), type, categoryIds);
+    }
+
+    /**
+     * Mismo cambio sobre varios productos (operaciones bulk): un solo evento
+     *
+     * @param productIds  IDs de los productos
+     * @param type        Tipo de cambio
+     * @param categoryIds Categorías que ganaron o perdieron alguno de los productos
+     */
+    public ProductChangedEvent(Collection<Long> productIds, Type type, Set<Long> categoryIds) {
+        this.productIds = List.copyOf(productIds);
+        this.type = type;
+        this.categoryIds = Set.copyOf(categoryIds);
+    }
+
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Set<Long> getCategoryIds() {
+        return categoryIds;
+    }
+}
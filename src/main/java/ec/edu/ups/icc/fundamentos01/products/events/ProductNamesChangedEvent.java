@@ -0,0 +1,26 @@
+package ec.edu.ups.icc.fundamentos01.products.events;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Evento publicado cuando aparecen nombres de producto nuevos (alta o renombre)
+ *
+ * Lo escucha ProductNameFilter, que solo necesita los nombres: así no tiene
+ * que consultar la BD por cada ProductChangedEvent (ej: reservas de stock).
+ */
+public class ProductNamesChangedEvent {
+
+    private final Set<String> names;
+
+    /**
+     * @param names Nombres que ahora existen en la BD
+     */
+    public ProductNamesChangedEvent(Collection<String> names) {
+        this.names = Set.copyOf(names);
+    }
+
+    public Set<String> getNames() {
+        return names;
+    }
+}
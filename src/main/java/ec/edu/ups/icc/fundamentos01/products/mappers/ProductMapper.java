@@ -6,6 +6,10 @@ import ec.edu.ups.icc.fundamentos01.products.dtos.CreateProductDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
 import ec.edu.ups.icc.fundamentos01.products.entities.ProductEntity;
 import ec.edu.ups.icc.fundamentos01.products.models.Product;
+import ec.edu.ups.icc.fundamentos01.products.projections.ProductCategoryRow;
+import ec.edu.ups.icc.fundamentos01.products.projections.ProductRow;
+
+import java.util.List;
 
 public class ProductMapper {
 
@@ -31,6 +35,10 @@ public class ProductMapper {
 
     /**
      * Convierte ProductEntity a ProductResponseDto (con relaciones completas)
+     *
+     * Owner y categorías son LAZY: la entidad debe venir de una consulta con
+     * sus relaciones (findWithRelations*) dentro de una transacción. Sin Open
+     * Session in View no se cargan fuera de ella.
      */
     public static ProductResponseDto toResponse(ProductEntity entity) {
         ProductResponseDto dto = new ProductResponseDto();
@@ -58,6 +66,46 @@ public class ProductMapper {
         return dto;
     }
 
+    /**
+     * Convierte una proyección ProductRow a ProductResponseDto
+     *
+     * @param row        Producto proyectado (con owner)
+     * @param categories Filas de categorías de ese producto (puede estar vacía)
+     */
+    public static ProductResponseDto toResponse(ProductRow row, List<ProductCategoryRow> categories) {
+        ProductResponseDto dto = new ProductResponseDto();
+
+        dto.id = row.id();
+        dto.name = row.name();
+        dto.description = row.description();
+        dto.price = row.price();
+        dto.stock = row.stock();
+
+        ProductResponseDto.UserSummaryDto userDto = new ProductResponseDto.UserSummaryDto();
+        userDto.id = row.ownerId();
+        userDto.name = row.ownerName();
+        userDto.email = row.ownerEmail();
+        dto.user = userDto;
+
+        dto.categories = categories.stream()
+                .map(ProductMapper::toCategoryResponseDto)
+                .sorted((left, right) -> left.name.compareToIgnoreCase(right.name))
+                .toList();
+
+        dto.createdAt = row.createdAt();
+        dto.updatedAt = row.updatedAt();
+
+        return dto;
+    }
+
+    private static CategoryResponseDto toCategoryResponseDto(ProductCategoryRow category) {
+        CategoryResponseDto dto = new CategoryResponseDto();
+        dto.id = category.categoryId();
+        dto.name = category.name();
+        dto.description = category.description();
+        return dto;
+    }
+
     private static CategoryResponseDto toCategoryResponseDto(CategoryEntity category) {
         CategoryResponseDto dto = new CategoryResponseDto();
         dto.id = category.getId();
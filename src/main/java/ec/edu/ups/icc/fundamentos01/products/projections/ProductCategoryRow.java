@@ -0,0 +1,14 @@
+package ec.edu.ups.icc.fundamentos01.products.projections;
+
+/**
+ * Proyección de solo lectura de la relación producto → categoría
+ *
+ * Una fila por cada par (producto, categoría). El servicio las agrupa por
+ * productId para armar la lista de categorías de cada ProductRow.
+ */
+public record ProductCategoryRow(
+        Long productId,
+        Long categoryId,
+        String name,
+        String description) {
+}
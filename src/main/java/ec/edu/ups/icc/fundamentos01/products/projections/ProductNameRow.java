@@ -0,0 +1,9 @@
+package ec.edu.ups.icc.fundamentos01.products.projections;
+
+/**
+ * Proyección mínima (ID, nombre) para validar la unicidad de nombres en lote
+ */
+public record ProductNameRow(
+        Long id,
+        String name) {
+}
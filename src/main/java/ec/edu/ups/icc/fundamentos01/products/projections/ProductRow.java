@@ -0,0 +1,24 @@
+package ec.edu.ups.icc.fundamentos01.products.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyección de solo lectura de un producto con su owner
+ *
+ * Se construye directamente en la consulta JPQL ("SELECT new ...ProductRow(...)"):
+ * - Solo se leen las columnas que necesita ProductResponseDto
+ * - No es una entidad: no entra al contexto de persistencia ni tiene dirty checking
+ * - Las categorías se cargan aparte, en una consulta por página (ProductCategoryRow)
+ */
+public record ProductRow(
+        Long id,
+        String name,
+        String description,
+        double price,
+        int stock,
+        Long ownerId,
+        String ownerName,
+        String ownerEmail,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
@@ -0,0 +1,27 @@
+package ec.edu.ups.icc.fundamentos01.products.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * Versión de un conjunto de productos (uno solo o el resultado de un filtro)
+ *
+ * Se arma con una consulta de agregación, sin leer las filas:
+ * - count: cantidad de productos (cambia al crear o eliminar)
+ * - productsModifiedAt: MAX(COALESCE(updatedAt, createdAt)) de los productos
+ * - ownersModifiedAt: lo mismo para sus owners (nombre y email salen en la respuesta)
+ * - revision: @Version del producto, solo en la consulta por ID (null en conjuntos)
+ * - categoriesModifiedAt / categoryCount: lo mismo para la tabla de categorías
+ *   (sus nombres salen en la respuesta; la cantidad cubre los borrados)
+ * Las fechas de productos y owners son null si no hay productos.
+ *
+ * Todo sale de la BD: dos instancias (o la misma tras reiniciar) calculan la
+ * misma versión para los mismos datos.
+ */
+public record ProductVersionRow(
+        Long count,
+        LocalDateTime productsModifiedAt,
+        LocalDateTime ownersModifiedAt,
+        Long revision,
+        LocalDateTime categoriesModifiedAt,
+        Long categoryCount) {
+}
@@ -0,0 +1,42 @@
+package ec.edu.ups.icc.fundamentos01.products.repositories;
+
+import ec.edu.ups.icc.fundamentos01.config.ProductSearchProperties;
+
+/**
+ * Filtros de búsqueda de productos (todos opcionales)
+ *
+ * Lo usan tanto la búsqueda global como la de un usuario (ownerId), en la BD
+ * (ProductRepositoryImpl) y en memoria (ProductSearchIndex). Un filtro null
+ * no genera predicado.
+ *
+ * @param text       Texto a buscar en el nombre (según mode)
+ * @param mode       Cómo se busca el texto (LIKE, FULLTEXT; MEMORY en la BD con la semántica del índice)
+ * @param ownerId    Solo productos de este usuario
+ * @param minPrice   Precio mínimo (inclusive)
+ * @param maxPrice   Precio máximo (inclusive)
+ * @param categoryId Solo productos que pertenecen a esta categoría
+ */
+public record ProductFilter(
+        String text,
+        ProductSearchProperties.Mode mode,
+        Long ownerId,
+        Double minPrice,
+        Double maxPrice,
+        Long categoryId) {
+
+    /**
+     * Sin filtros: todos los productos
+     */
+    public static final ProductFilter NONE = new ProductFilter(null, null, null, null, null, null);
+
+    /**
+     * Solo los productos de una categoría
+     */
+    public static ProductFilter ofCategory(Long categoryId) {
+        return new ProductFilter(null, null, null, null, null, categoryId);
+    }
+
+    public boolean hasText() {
+        return text != null && !text.isBlank();
+    }
+}
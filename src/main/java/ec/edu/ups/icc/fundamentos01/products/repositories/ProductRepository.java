@@ -1,25 +1,49 @@
 package ec.edu.ups.icc.fundamentos01.products.repositories;
 
 import ec.edu.ups.icc.fundamentos01.products.entities.ProductEntity;
+import ec.edu.ups.icc.fundamentos01.products.projections.ProductCategoryRow;
+import ec.edu.ups.icc.fundamentos01.products.projections.ProductNameRow;
+import ec.edu.ups.icc.fundamentos01.products.projections.ProductRow;
+import ec.edu.ups.icc.fundamentos01.products.projections.ProductVersionRow;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
+public interface ProductRepository extends JpaRepository<ProductEntity, Long>, ProductRepositoryCustom {
+
+       /**
+        * Filas por FETCH al recorrer un Stream de la BD (ver streamAllNames)
+        */
+       String STREAM_FETCH_SIZE = "500";
 
        // ============== CONSULTAS BÁSICAS (SIN PAGINACIÓN) ==============
 
        List<ProductEntity> findByNameContainingIgnoreCase(String name);
 
-       Optional<ProductEntity> findByName(String name);
+       /**
+        * ID del producto con ese nombre, sin cargar la entidad
+        * (validación de unicidad, servida por el índice único uk_products_name)
+        */
+       @Query("SELECT p.id FROM ProductEntity p WHERE p.name = :name")
+       Optional<Long> findIdByName(@Param("name") String name);
 
        List<ProductEntity> findByPriceLessThan(Double price);
 
@@ -68,43 +92,6 @@ public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
                      @Param("maxPrice") Double maxPrice,
                      Pageable pageable);
 
-       /**
-        * Busca productos con filtros opcionales y paginación
-        * Todos los parámetros son opcionales excepto el Pageable
-        * NOTA: Usa LEFT JOIN p.categories para relación Many-to-Many
-        */
-       @Query("SELECT DISTINCT p FROM ProductEntity p " +
-                     "LEFT JOIN p.categories c " +
-                     "WHERE (COALESCE(:name, '') = '' OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) " +
-                     "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
-                     "AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
-                     "AND (:categoryId IS NULL OR c.id = :categoryId)")
-       Page<ProductEntity> findWithFilters(
-                     @Param("name") String name,
-                     @Param("minPrice") Double minPrice,
-                     @Param("maxPrice") Double maxPrice,
-                     @Param("categoryId") Long categoryId,
-                     Pageable pageable);
-
-       /**
-        * Busca productos de un usuario con filtros opcionales y paginación
-        * NOTA: Usa LEFT JOIN p.categories para relación Many-to-Many
-        */
-       @Query("SELECT DISTINCT p FROM ProductEntity p " +
-                     "LEFT JOIN p.categories c " +
-                     "WHERE p.owner.id = :userId " +
-                     "AND (COALESCE(:name, '') = '' OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) " +
-                     "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
-                     "AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
-                     "AND (:categoryId IS NULL OR c.id = :categoryId)")
-       Page<ProductEntity> findByUserIdWithFilters(
-                     @Param("userId") Long userId,
-                     @Param("name") String name,
-                     @Param("minPrice") Double minPrice,
-                     @Param("maxPrice") Double maxPrice,
-                     @Param("categoryId") Long categoryId,
-                     Pageable pageable);
-
        // ============== CONSULTAS CON SLICE PARA PERFORMANCE ==============
 
        /**
@@ -125,21 +112,156 @@ public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
                      "ORDER BY p.createdAt DESC")
        Slice<ProductEntity> findAllOrderByCreatedAtDesc(Pageable pageable);
 
-       // ============== CONSULTAS DE CONTEO (PARA METADATOS) ==============
+       // ============== CONSULTAS CON FETCH PLAN (SIN N+1) ==============
 
        /**
-        * Cuenta productos con filtros (útil para estadísticas)
-        * NOTA: Usa COUNT(DISTINCT p.id) por la relación Many-to-Many
+        * Producto con owner y categorías en una sola consulta
         */
-       @Query("SELECT COUNT(DISTINCT p.id) FROM ProductEntity p " +
-                     "LEFT JOIN p.categories c " +
-                     "WHERE (COALESCE(:name, '') = '' OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) " +
-                     "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
-                     "AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
-                     "AND (:categoryId IS NULL OR c.id = :categoryId)")
-       long countWithFilters(
-                     @Param("name") String name,
-                     @Param("minPrice") Double minPrice,
-                     @Param("maxPrice") Double maxPrice,
-                     @Param("categoryId") Long categoryId);
+       @EntityGraph(attributePaths = { "owner", "categories" })
+       Optional<ProductEntity> findWithRelationsById(Long id);
+
+       /**
+        * Versión de un producto (GET condicional) sin cargar la entidad
+        * count = 0 si no existe
+        */
+       @Query("SELECT new ec.edu.ups.icc.fundamentos01.products.projections.ProductVersionRow(" +
+                     "COUNT(p), MAX(COALESCE(p.updatedAt, p.createdAt)), MAX(COALESCE(o.updatedAt, o.createdAt)), " +
+                     "MAX(p.version), " +
+                     "(SELECT MAX(COALESCE(c.updatedAt, c.createdAt)) FROM CategoryEntity c), " +
+                     "(SELECT COUNT(c) FROM CategoryEntity c)) " +
+                     "FROM ProductEntity p JOIN p.owner o WHERE p.id = :id")
+       ProductVersionRow findVersionById(@Param("id") Long id);
+
+       /**
+        * Productos de un usuario con owner y categorías en una sola consulta
+        */
+       @EntityGraph(attributePaths = { "owner", "categories" })
+       List<ProductEntity> findWithRelationsByOwnerId(Long userId);
+
+       /**
+        * Productos de una categoría con owner y TODAS sus categorías
+        * Usa EXISTS para que el filtro no recorte la colección que se carga
+        */
+       @EntityGraph(attributePaths = { "owner", "categories" })
+       @Query("SELECT p FROM ProductEntity p " +
+                     "WHERE EXISTS (SELECT 1 FROM CategoryEntity c JOIN c.products cp " +
+                     "WHERE cp = p AND c.id = :categoryId)")
+       List<ProductEntity> findWithRelationsByCategoryId(@Param("categoryId") Long categoryId);
+
+       /**
+        * Varios productos con owner y categorías en una sola consulta (operaciones bulk)
+        */
+       @EntityGraph(attributePaths = { "owner", "categories" })
+       @Query("SELECT p FROM ProductEntity p WHERE p.id IN :ids")
+       List<ProductEntity> findWithRelationsByIdIn(@Param("ids") Collection<Long> ids);
+
+       // ============== PROYECCIONES DE SOLO LECTURA (LISTADOS) ==============
+       // Los listados seleccionan solo las columnas del DTO directamente en
+       // records (ProductRow). No se crean entidades administradas: el contexto
+       // de persistencia no crece y no hay dirty checking al cerrar la transacción.
+       // Las categorías de la página se cargan en UNA consulta adicional
+       // (findCategoryRowsByProductIdIn) y se agrupan en el servicio.
+
+       /**
+        * Página de productos proyectados
+        */
+       @Query(value = "SELECT new ec.edu.ups.icc.fundamentos01.products.projections.ProductRow(" +
+                     "p.id, p.name, p.description, p.price, p.stock, " +
+                     "o.id, o.name, o.email, p.createdAt, p.updatedAt) " +
+                     "FROM ProductEntity p JOIN p.owner o ",
+                     countQuery = "SELECT COUNT(p) FROM ProductEntity p")
+       Page<ProductRow> findPageOfRows(Pageable pageable);
+
+       /**
+        * Slice de productos proyectados (sin count)
+        */
+       @Query("SELECT new ec.edu.ups.icc.fundamentos01.products.projections.ProductRow(" +
+                     "p.id, p.name, p.description, p.price, p.stock, " +
+                     "o.id, o.name, o.email, p.createdAt, p.updatedAt) " +
+                     "FROM ProductEntity p JOIN p.owner o ")
+       Slice<ProductRow> findSliceOfRows(Pageable pageable);
+
+       /**
+        * Todos los productos proyectados
+        */
+       @Query("SELECT new ec.edu.ups.icc.fundamentos01.products.projections.ProductRow(" +
+                     "p.id, p.name, p.description, p.price, p.stock, " +
+                     "o.id, o.name, o.email, p.createdAt, p.updatedAt) " +
+                     "FROM ProductEntity p JOIN p.owner o " +
+                     "ORDER BY p.id")
+       List<ProductRow> findAllRows();
+
+       /**
+        * Nombres de todos los productos, por lotes (para ProductNameFilter)
+        * Requiere transacción abierta mientras se recorre
+        */
+       @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+       @Query("SELECT p.name FROM ProductEntity p")
+       Stream<String> streamAllNames();
+
+       /**
+        * Productos proyectados por ID (sin orden garantizado)
+        */
+       @Query("SELECT new ec.edu.ups.icc.fundamentos01.products.projections.ProductRow(" +
+                     "p.id, p.name, p.description, p.price, p.stock, " +
+                     "o.id, o.name, o.email, p.createdAt, p.updatedAt) " +
+                     "FROM ProductEntity p JOIN p.owner o " +
+                     "WHERE p.id IN :ids")
+       List<ProductRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+       /**
+        * Categorías de una página de productos (una fila por par producto-categoría)
+        */
+       @Query("SELECT new ec.edu.ups.icc.fundamentos01.products.projections.ProductCategoryRow(" +
+                     "p.id, c.id, c.name, c.description) " +
+                     "FROM ProductEntity p JOIN p.categories c " +
+                     "WHERE p.id IN :productIds")
+       List<ProductCategoryRow> findCategoryRowsByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+       /**
+        * Categorías de todos los productos (para findAllRows)
+        */
+       @Query("SELECT new ec.edu.ups.icc.fundamentos01.products.projections.ProductCategoryRow(" +
+                     "p.id, c.id, c.name, c.description) " +
+                     "FROM ProductEntity p JOIN p.categories c")
+       List<ProductCategoryRow> findAllCategoryRows();
+
+       /**
+        * (ID, nombre) de los productos con alguno de los nombres dados
+        * Valida la unicidad de nombres de un lote en una sola consulta
+        */
+       @Query("SELECT new ec.edu.ups.icc.fundamentos01.products.projections.ProductNameRow(p.id, p.name) " +
+                     "FROM ProductEntity p WHERE p.name IN :names")
+       List<ProductNameRow> findNameRowsByNameIn(@Param("names") Collection<String> names);
+
+       // Filtros opcionales (búsqueda global y por usuario) y su conteo:
+       // ver ProductRepositoryCustom.findRows / countRows
+
+       // ============== STOCK (UPDATE ATÓMICO) ==============
+       //
+       // Una sola sentencia lee y escribe el stock: dos reservas concurrentes no
+       // pueden leer el mismo valor. También incrementan version (un PUT con
+       // If-Match anterior falla) y updatedAt (cambian los ETags).
+
+       /**
+        * Descuenta stock solo si alcanza
+        * @return 1 si se descontó, 0 si no existe o no alcanza
+        */
+       @Transactional
+       @Modifying
+       @Query("UPDATE ProductEntity p SET p.stock = p.stock - :quantity, " +
+                     "p.version = p.version + 1, p.updatedAt = :now " +
+                     "WHERE p.id = :id AND p.stock >= :quantity")
+       int decrementStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+
+       /**
+        * Devuelve stock, sin pasar del máximo de la columna (int)
+        * @return 1 si se devolvió, 0 si no existe o el stock pasaría del máximo
+        */
+       @Transactional
+       @Modifying
+       @Query("UPDATE ProductEntity p SET p.stock = p.stock + :quantity, " +
+                     "p.version = p.version + 1, p.updatedAt = :now " +
+                     "WHERE p.id = :id AND p.stock <= 2147483647 - :quantity")
+       int incrementStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
 }
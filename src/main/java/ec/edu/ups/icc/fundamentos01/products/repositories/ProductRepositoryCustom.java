@@ -0,0 +1,61 @@
+package ec.edu.ups.icc.fundamentos01.products.repositories;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import ec.edu.ups.icc.fundamentos01.products.projections.ProductRow;
+import ec.edu.ups.icc.fundamentos01.products.projections.ProductVersionRow;
+
+/**
+ * Consultas de productos que no se pueden expresar con @Query estático
+ * (implementadas con Criteria API en ProductRepositoryImpl)
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Paginación por keyset (seek): devuelve las filas que van DESPUÉS de
+     * (lastValue, lastId) según el orden (property, id)
+     * 
+     * A diferencia de OFFSET, la BD no recorre las filas anteriores: salta
+     * directamente a la posición usando la condición
+     * property > lastValue OR (property = lastValue AND id > lastId)
+     * 
+     * @param filter     Filtros (ProductFilter.NONE = todos los productos)
+     * @param property   Propiedad de ordenamiento (ej: "price", "owner.name")
+     * @param descending true para orden descendente
+     * @param lastValue  Valor de la propiedad en la última fila vista (null = primera página)
+     * @param lastId     ID de la última fila vista (null = primera página)
+     * @param limit      Máximo de filas a devolver
+     */
+    List<ProductRow> findRowsAfter(ProductFilter filter, String property, boolean descending, Object lastValue,
+            Long lastId, int limit);
+
+    /**
+     * Motor de filtros de productos: arma la consulta SOLO con los filtros presentes
+     * 
+     * - Sin "(:param IS NULL OR ...)": cada combinación de filtros genera su propio
+     *   SQL y PostgreSQL puede planificarlo (e indexarlo) por separado
+     * - La categoría se filtra con EXISTS: sin JOIN a product_categories ni DISTINCT
+     * - El texto se busca con los índices de V2__product_search_indexes.sql
+     *   (trigramas en LIKE, tsvector en FULLTEXT)
+     * 
+     * @param filter   Filtros (los null se omiten)
+     * @param ranked   true: ordena por relevancia del texto (ignora el Sort del Pageable)
+     * @param pageable Página y orden (propiedades de ALLOWED_SORT_PROPERTIES)
+     */
+    Page<ProductRow> findRows(ProductFilter filter, boolean ranked, Pageable pageable);
+
+    /**
+     * Cantidad de productos que cumplen los filtros
+     */
+    long countRows(ProductFilter filter);
+
+    /**
+     * Versión de los productos que cumplen los filtros (GET condicional):
+     * cantidad y última modificación de productos y owners, en una sola
+     * consulta de agregación
+     */
+    ProductVersionRow findVersion(ProductFilter filter);
+}
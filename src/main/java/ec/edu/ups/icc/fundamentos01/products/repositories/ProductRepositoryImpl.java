@@ -0,0 +1,272 @@
+package ec.edu.ups.icc.fundamentos01.products.repositories;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import ec.edu.ups.icc.fundamentos01.categories.entity.CategoryEntity;
+import ec.edu.ups.icc.fundamentos01.config.ProductSearchProperties;
+import ec.edu.ups.icc.fundamentos01.products.entities.ProductEntity;
+import ec.edu.ups.icc.fundamentos01.products.projections.ProductRow;
+import ec.edu.ups.icc.fundamentos01.products.projections.ProductVersionRow;
+import ec.edu.ups.icc.fundamentos01.products.search.ProductSearchIndex;
+import ec.edu.ups.icc.fundamentos01.users.entities.UserEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+/**
+ * Implementación de ProductRepositoryCustom
+ * 
+ * Spring Data la detecta por el sufijo "Impl" y la combina con ProductRepository
+ */
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    // Límites de palabra de ProductSearchIndex.tokenize: cualquier carácter fuera de [a-z0-9]
+    private static final String WORD_START = "(^|[^a-z0-9])";
+    private static final String WORD_END = "([^a-z0-9]|$)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public List<ProductRow> findRowsAfter(ProductFilter filter, String property, boolean descending,
+            Object lastValue, Long lastId, int limit) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductRow> query = cb.createQuery(ProductRow.class);
+        Root<ProductEntity> p = query.from(ProductEntity.class);
+        Join<ProductEntity, UserEntity> o = p.join("owner");
+
+        query.select(row(cb, p, o));
+
+        Path<Long> id = p.get("id");
+        Expression sortKey = resolve(p, o, property);
+
+        List<Predicate> predicates = new ArrayList<>(List.of(predicates(cb, query, p, filter)));
+
+        // Posición del cursor: (sortKey, id) estrictamente después de (lastValue, lastId)
+        if (lastId != null) {
+            Predicate after;
+            if ("id".equals(property)) {
+                after = descending ? cb.lessThan(id, lastId) : cb.greaterThan(id, lastId);
+            } else {
+                Comparable value = (Comparable) lastValue;
+                Predicate beyondValue = descending
+                        ? cb.lessThan(sortKey, value)
+                        : cb.greaterThan(sortKey, value);
+                Predicate sameValueBeyondId = cb.and(
+                        cb.equal(sortKey, value),
+                        descending ? cb.lessThan(id, lastId) : cb.greaterThan(id, lastId));
+                after = cb.or(beyondValue, sameValueBeyondId);
+            }
+            predicates.add(after);
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+
+        // El ID desempata filas con el mismo valor: el orden es total y estable
+        Order byKey = descending ? cb.desc(sortKey) : cb.asc(sortKey);
+        Order byId = descending ? cb.desc(id) : cb.asc(id);
+        query.orderBy("id".equals(property) ? List.of(byId) : List.of(byKey, byId));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Page<ProductRow> findRows(ProductFilter filter, boolean ranked, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        // ----- Filas de la página -----
+        CriteriaQuery<ProductRow> query = cb.createQuery(ProductRow.class);
+        Root<ProductEntity> p = query.from(ProductEntity.class);
+        Join<ProductEntity, UserEntity> o = p.join("owner");
+
+        query.select(row(cb, p, o));
+        query.where(predicates(cb, query, p, filter));
+
+        List<Order> orders = new ArrayList<>();
+        if (ranked && filter.hasText()) {
+            orders.add(cb.desc(relevance(cb, p, filter)));
+            orders.add(cb.asc(p.get("id")));
+        } else {
+            for (Sort.Order order : pageable.getSort()) {
+                Expression<?> key = sortKey(cb, query, p, o, order.getProperty());
+                orders.add(order.isDescending() ? cb.desc(key) : cb.asc(key));
+            }
+        }
+        query.orderBy(orders);
+
+        List<ProductRow> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        // ----- Total (solo si la página no permite deducirlo) -----
+        return PageableExecutionUtils.getPage(content, pageable, () -> countRows(filter));
+    }
+
+    @Override
+    public long countRows(ProductFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> count = cb.createQuery(Long.class);
+        Root<ProductEntity> p = count.from(ProductEntity.class);
+
+        // Sin JOIN a users: el filtro por owner usa la FK products.user_id
+        count.select(cb.count(p));
+        count.where(predicates(cb, count, p, filter));
+        return entityManager.createQuery(count).getSingleResult();
+    }
+
+    @Override
+    public ProductVersionRow findVersion(ProductFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductVersionRow> version = cb.createQuery(ProductVersionRow.class);
+        Root<ProductEntity> p = version.from(ProductEntity.class);
+        Join<ProductEntity, UserEntity> o = p.join("owner");
+
+        // Categorías: subconsultas escalares, sin JOIN que multiplique las filas
+        Subquery<LocalDateTime> categoriesModifiedAt = version.subquery(LocalDateTime.class);
+        Root<CategoryEntity> c = categoriesModifiedAt.from(CategoryEntity.class);
+        categoriesModifiedAt.select(cb.greatest(modifiedAt(cb, c)));
+        Subquery<Long> categoryCount = version.subquery(Long.class);
+        categoryCount.select(cb.count(categoryCount.from(CategoryEntity.class)));
+
+        version.select(cb.construct(ProductVersionRow.class,
+                cb.count(p), cb.greatest(modifiedAt(cb, p)), cb.greatest(modifiedAt(cb, o)),
+                cb.nullLiteral(Long.class), categoriesModifiedAt, categoryCount));
+        version.where(predicates(cb, version, p, filter));
+        return entityManager.createQuery(version).getSingleResult();
+    }
+
+    /**
+     * updatedAt es null hasta la primera edición
+     */
+    private static Expression<LocalDateTime> modifiedAt(CriteriaBuilder cb, From<?, ?> entity) {
+        return cb.coalesce(entity.<LocalDateTime>get("updatedAt"), entity.<LocalDateTime>get("createdAt"));
+    }
+
+    private Predicate[] predicates(CriteriaBuilder cb, CriteriaQuery<?> query, Root<ProductEntity> p,
+            ProductFilter filter) {
+
+        List<Predicate> predicates = new ArrayList<>();
+
+        if (filter.hasText()) {
+            String text = filter.text().trim();
+            if (filter.mode() == ProductSearchProperties.Mode.FULLTEXT) {
+                predicates.add(cb.isTrue(cb.function("fts_match", Boolean.class,
+                        p.get("searchVector"), cb.literal(text))));
+            } else if (filter.mode() == ProductSearchProperties.Mode.MEMORY) {
+                predicates.addAll(tokenPredicates(cb, p, text));
+            } else {
+                predicates.add(cb.like(cb.lower(p.get("name")), "%" + escapeLike(text.toLowerCase()) + "%", '\\'));
+            }
+        }
+        if (filter.ownerId() != null) {
+            predicates.add(cb.equal(p.get("owner").get("id"), filter.ownerId()));
+        }
+        if (filter.minPrice() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(p.get("price"), filter.minPrice()));
+        }
+        if (filter.maxPrice() != null) {
+            predicates.add(cb.lessThanOrEqualTo(p.get("price"), filter.maxPrice()));
+        }
+        if (filter.categoryId() != null) {
+            // EXISTS en lugar de JOIN: sin filas repetidas ni DISTINCT
+            Subquery<Long> inCategory = query.subquery(Long.class);
+            Root<ProductEntity> sp = inCategory.correlate(p);
+            Join<ProductEntity, CategoryEntity> c = sp.join("categories");
+            inCategory.select(c.get("id")).where(cb.equal(c.get("id"), filter.categoryId()));
+            predicates.add(cb.exists(inCategory));
+        }
+
+        return predicates.toArray(Predicate[]::new);
+    }
+
+    /**
+     * Misma semántica que ProductSearchIndex (modo MEMORY mientras el índice
+     * se construye): cada token debe ser una palabra del nombre o la
+     * descripción, el último como prefijo ("lap" encuentra "laptop").
+     *
+     * Los tokens salen de ProductSearchIndex.tokenize (solo [a-z0-9]), así que
+     * no hace falta escaparlos en la expresión regular. Un carácter con tilde
+     * fuera de la tabla de token_match es la única diferencia posible.
+     */
+    private static List<Predicate> tokenPredicates(CriteriaBuilder cb, Root<ProductEntity> p, String text) {
+        List<String> tokens = ProductSearchIndex.tokenize(text);
+        List<Predicate> predicates = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            boolean prefix = i == tokens.size() - 1;
+            String regex = WORD_START + tokens.get(i) + (prefix ? "" : WORD_END);
+            predicates.add(cb.isTrue(cb.function("token_match", Boolean.class,
+                    p.get("name"), p.get("description"), cb.literal(regex))));
+        }
+        return predicates;
+    }
+
+    /**
+     * Relevancia: ts_rank en FULLTEXT, similitud de trigramas en LIKE
+     */
+    private Expression<Double> relevance(CriteriaBuilder cb, Root<ProductEntity> p, ProductFilter filter) {
+        String text = filter.text().trim();
+        if (filter.mode() == ProductSearchProperties.Mode.FULLTEXT) {
+            return cb.function("fts_rank", Double.class, p.get("searchVector"), cb.literal(text));
+        }
+        return cb.function("trgm_similarity", Double.class, cb.lower(p.get("name")), cb.literal(text.toLowerCase()));
+    }
+
+    /**
+     * Expresión de ordenamiento para una propiedad de ALLOWED_SORT_PROPERTIES
+     * 
+     * "categories.name" ordena por la primera categoría (alfabética) del producto
+     * con una subconsulta: un JOIN a la colección repetiría productos en la página
+     */
+    private Expression<?> sortKey(CriteriaBuilder cb, CriteriaQuery<?> query, Root<ProductEntity> p,
+            Join<ProductEntity, UserEntity> o, String property) {
+        if (property.equals("categories.name")) {
+            Subquery<String> firstCategory = query.subquery(String.class);
+            Root<ProductEntity> sp = firstCategory.correlate(p);
+            Join<ProductEntity, CategoryEntity> c = sp.join("categories");
+            return firstCategory.select(cb.least(c.<String>get("name")));
+        }
+        return resolve(p, o, property);
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * SELECT new ProductRow(...): mismas columnas que las consultas de ProductRepository
+     */
+    private CompoundSelection<ProductRow> row(CriteriaBuilder cb, Root<ProductEntity> p,
+            Join<ProductEntity, UserEntity> o) {
+        return cb.construct(ProductRow.class,
+                p.get("id"), p.get("name"), p.get("description"), p.get("price"), p.get("stock"),
+                o.get("id"), o.get("name"), o.get("email"), p.get("createdAt"), p.get("updatedAt"));
+    }
+
+    private Path<?> resolve(Root<ProductEntity> p, Join<ProductEntity, UserEntity> o, String property) {
+        if (property.startsWith("owner.")) {
+            return o.get(property.substring("owner.".length()));
+        }
+        return p.get(property);
+    }
+}
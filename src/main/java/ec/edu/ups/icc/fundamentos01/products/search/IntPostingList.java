@@ -0,0 +1,36 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Lista de postings de un token: documentos (docId) que lo contienen
+ *
+ * Arreglo int[] que crece al agregar. Los docId se asignan en orden creciente,
+ * por eso la lista queda ordenada sin ordenar explícitamente.
+ */
+final class IntPostingList {
+
+    private int[] docs = new int[4];
+    private int size;
+
+    void add(int doc) {
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size * 2);
+        }
+        docs[size++] = doc;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Marca en el BitSet todos los documentos de la lista
+     */
+    void addTo(BitSet bits) {
+        for (int i = 0; i < size; i++) {
+            bits.set(docs[i]);
+        }
+    }
+}
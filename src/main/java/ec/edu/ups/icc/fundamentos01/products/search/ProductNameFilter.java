@@ -0,0 +1,181 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import ec.edu.ups.icc.fundamentos01.config.ProductNameFilterProperties;
+import ec.edu.ups.icc.fundamentos01.products.events.ProductNamesChangedEvent;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductRepository;
+
+/**
+ * ProductNameFilter: filtro de Bloom de los nombres de producto
+ *
+ * Responde "este nombre seguro no existe" sin consultar la BD. Sirve para
+ * /api/products/validate-name (se llama en cada tecla del formulario), create
+ * y update: solo los nombres que el filtro no puede descartar van a la BD.
+ *
+ * - mightContain = false: el nombre no está en la BD (sin falsos negativos)
+ * - mightContain = true: puede estar; ~falsePositiveRate de los nombres libres
+ *   también dan true y se resuelven con ProductRepository.findIdByName
+ *
+ * Sincronización:
+ * - Incremental: escucha ProductNamesChangedEvent después del commit. Los
+ *   nombres borrados o renombrados no se pueden quitar: solo dejan falsos positivos
+ * - Reconstrucción: al arrancar y cada products.name-filter.rebuild-interval
+ *   desde la BD. Incluye los nombres creados por otras instancias; hasta
+ *   entonces este filtro puede decir "libre" para ellos y el índice único
+ *   uk_products_name responde 409 al guardar
+ * - Mientras no se construyó, mightContain devuelve true (todo va a la BD)
+ */
+@Component
+public class ProductNameFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductNameFilter.class);
+
+    private final ProductRepository productRepo;
+    private final ProductNameFilterProperties properties;
+
+    private volatile Bits bits;
+
+    // Nombres agregados mientras se reconstruye: se agregan también al filtro nuevo
+    private volatile Set<String> addedDuringRebuild;
+
+    public ProductNameFilter(ProductRepository productRepo, ProductNameFilterProperties properties) {
+        this.productRepo = productRepo;
+        this.properties = properties;
+    }
+
+    /**
+     * false solo si el nombre seguro no existe en la BD
+     */
+    public boolean mightContain(String name) {
+        Bits current = bits;
+        return current == null || !properties.isEnabled() || current.mightContain(name);
+    }
+
+    /**
+     * Nombres confirmados en la BD (alta o renombre)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductNamesChanged(ProductNamesChangedEvent event) {
+        // Primero el registro de pendientes, después el filtro vigente: si la
+        // reconstrucción ya reemplazó el filtro, el nombre entra en el nuevo
+        Set<String> pending = addedDuringRebuild;
+        if (pending != null) {
+            pending.addAll(event.getNames());
+        }
+        Bits current = bits;
+        if (current != null) {
+            event.getNames().forEach(current::put);
+        }
+    }
+
+    /**
+     * Reconstruye el filtro desde la BD; la primera ejecución es al arrancar
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "#{@productNameFilterProperties.rebuildInterval.toMillis()}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Set<String> pending = ConcurrentHashMap.newKeySet();
+        addedDuringRebuild = pending;
+
+        long count = productRepo.count();
+        Bits fresh = new Bits(Math.max(properties.getExpectedNames(), 2 * count), properties.getFalsePositiveRate());
+        try (Stream<String> names = productRepo.streamAllNames()) {
+            names.forEach(fresh::put);
+        }
+
+        bits = fresh;
+        addedDuringRebuild = null;
+        pending.forEach(fresh::put);
+
+        logger.info("Filtro de nombres reconstruido: {} nombres, {} KB en {} ms",
+                count, fresh.sizeInBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Arreglo de bits con k posiciones por nombre (doble hashing)
+     * AtomicLongArray: agregar nombres no necesita lock
+     */
+    private static final class Bits {
+
+        private final AtomicLongArray words;
+        private final long size;
+        private final int hashes;
+
+        Bits(long expected, double falsePositiveRate) {
+            // m = -n ln(p) / ln(2)^2, k = m/n ln(2)
+            long bitCount = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray(Math.toIntExact((bitCount + 63) / 64));
+            this.size = words.length() * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) size / expected * Math.log(2)));
+        }
+
+        void put(String name) {
+            long hash = hash(name);
+            long h1 = mix(hash);
+            long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                long mask = 1L << (bit & 63);
+                int index = (int) (bit >>> 6);
+                if ((words.get(index) & mask) == 0) {
+                    words.getAndAccumulate(index, mask, (word, m) -> word | m);
+                }
+            }
+        }
+
+        boolean mightContain(String name) {
+            long hash = hash(name);
+            long h1 = mix(hash);
+            long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                if ((words.get((int) (bit >>> 6)) & (1L << (bit & 63))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long sizeInBytes() {
+            return size / 8;
+        }
+
+        /**
+         * FNV-1a de 64 bits sobre los bytes UTF-8 (mismo resultado en toda JVM)
+         */
+        private static long hash(String name) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b & 0xff;
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+
+        /**
+         * Mezcla final de SplitMix64: reparte los bits de FNV entre las k posiciones
+         */
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
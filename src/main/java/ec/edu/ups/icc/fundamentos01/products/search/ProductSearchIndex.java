@@ -0,0 +1,515 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import ec.edu.ups.icc.fundamentos01.config.ProductSearchProperties;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.events.ProductChangedEvent;
+import ec.edu.ups.icc.fundamentos01.products.mappers.ProductMapper;
+import ec.edu.ups.icc.fundamentos01.products.projections.ProductCategoryRow;
+import ec.edu.ups.icc.fundamentos01.products.projections.ProductRow;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductFilter;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductRepository;
+
+/**
+ * ProductSearchIndex: Índice invertido de productos en memoria
+ *
+ * Alternativa a la búsqueda en PostgreSQL (products.search.mode=memory):
+ * /api/products/search se responde sin consultar la BD.
+ *
+ * Estructura:
+ * - Cada versión de un producto recibe un docId (int) creciente
+ * - token → IntPostingList (int[] de docIds), en un TreeMap para buscar por prefijo
+ * - Por docId: precio (double[]), owner (long[]), categorías (long[][]) para filtrar
+ *   sin objetos, y la proyección ProductRow para armar la respuesta
+ * - live (BitSet): docIds vigentes. Modificar un producto crea un docId nuevo y
+ *   apaga el anterior; los postings viejos se descartan en la reconstrucción
+ *
+ * Búsqueda: todos los tokens deben aparecer en nombre o descripción; el último
+ * token se busca como prefijo ("lap" encuentra "laptop").
+ *
+ * Sincronización:
+ * - Incremental: escucha ProductChangedEvent (create, update, partialUpdate, delete)
+ *   y recarga ese producto desde la BD después del commit
+ * - Stock: los cambios que son solo de stock (Type.STOCK, una por reserva en una
+ *   venta con mucho tráfico) no recargan en el momento; se juntan y se recargan
+ *   cada products.search.memory.stock-refresh-interval con una sola consulta
+ * - Verificación de consistencia: cada products.search.memory.rebuild-interval se
+ *   reconstruye desde ProductRepository en segundo plano y se reemplaza el índice.
+ *   Corrige lo que los eventos no cubren (ej: renombrar una categoría o un usuario)
+ *
+ * Versión: un contador que sube con cada cambio del contenido. Es el ETag de
+ * /api/products/search en modo memory, así el GET condicional tampoco consulta la BD.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private final ProductRepository productRepo;
+    private final ProductSearchProperties searchProperties;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment segment = new Segment();
+    private volatile boolean ready;
+
+    // Identifica este arranque en la versión: la generación 3 de otro proceso no coincide
+    private final String epoch = Long.toHexString(System.currentTimeMillis());
+    private final AtomicLong generation = new AtomicLong();
+
+    // Productos modificados mientras se reconstruye: se vuelven a cargar al terminar
+    private volatile Set<Long> changedDuringRebuild;
+
+    // Productos que solo cambiaron de stock desde la última recarga de stock
+    private final Set<Long> stockChanged = ConcurrentHashMap.newKeySet();
+
+    public ProductSearchIndex(ProductRepository productRepo, ProductSearchProperties searchProperties) {
+        this.productRepo = productRepo;
+        this.searchProperties = searchProperties;
+    }
+
+    /**
+     * true cuando el índice está activo y ya se construyó al menos una vez
+     */
+    public boolean isReady() {
+        return enabled() && ready;
+    }
+
+    /**
+     * Versión del contenido (ej: "18f3a2c1b00-42"); cambia cada vez que se
+     * agrega, modifica o quita un producto del índice
+     */
+    public String version() {
+        return epoch + "-" + generation.get();
+    }
+
+    /**
+     * Busca en el índice con la misma semántica de filtros que la BD
+     *
+     * @param filter   Filtros (los mismos que ProductRepository.findRows; se ignora el mode)
+     * @param ranked   true: ordena por relevancia (coincidencias en nombre pesan más)
+     * @param pageable Página y orden (propiedades de ALLOWED_SORT_PROPERTIES)
+     */
+    public Page<ProductResponseDto> search(ProductFilter filter, boolean ranked, Pageable pageable) {
+
+        List<String> terms = tokenize(filter.text());
+
+        lock.readLock().lock();
+        try {
+            Segment current = segment;
+            BitSet candidates = current.match(terms);
+
+            List<Integer> matches = new ArrayList<>();
+            for (int doc = candidates.nextSetBit(0); doc >= 0; doc = candidates.nextSetBit(doc + 1)) {
+                if (current.accepts(doc, filter)) {
+                    matches.add(doc);
+                }
+            }
+
+            Comparator<Integer> order = ranked && !terms.isEmpty()
+                    ? current.byRelevance(terms)
+                    : current.bySort(pageable.getSort());
+            matches.sort(order);
+
+            int from = (int) Math.min(pageable.getOffset(), matches.size());
+            int to = Math.min(from + pageable.getPageSize(), matches.size());
+            List<ProductResponseDto> content = matches.subList(from, to).stream()
+                    .map(current::toResponseDto)
+                    .toList();
+
+            return new PageImpl<>(content, pageable, matches.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Actualización incremental después del commit
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled()) {
+            return;
+        }
+        if (event.getType() == ProductChangedEvent.Type.STOCK) {
+            // Sin consulta ni write lock en el camino de la reserva (ver refreshStock)
+            stockChanged.addAll(event.getProductIds());
+            return;
+        }
+
+        Set<Long> pending = changedDuringRebuild;
+        if (pending != null) {
+            pending.addAll(event.getProductIds());
+        }
+        refresh(event.getProductIds());
+    }
+
+    /**
+     * Recarga juntos los productos que solo cambiaron de stock: los términos y
+     * filtros no cambian, pero la respuesta muestra el stock
+     */
+    @Scheduled(fixedDelayString = "#{@productSearchProperties.memory.stockRefreshInterval.toMillis()}")
+    public void refreshStock() {
+        if (!enabled() || stockChanged.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(stockChanged);
+        stockChanged.removeAll(ids);
+
+        Set<Long> pending = changedDuringRebuild;
+        if (pending != null) {
+            pending.addAll(ids);
+        }
+        refresh(ids);
+    }
+
+    /**
+     * Verificación de consistencia: reconstruye el índice completo desde la BD
+     *
+     * La primera ejecución (al arrancar) construye el índice; mientras tanto
+     * la búsqueda sigue usando PostgreSQL.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "#{@productSearchProperties.memory.rebuildInterval.toMillis()}")
+    public void rebuild() {
+        if (!enabled()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Set<Long> pending = ConcurrentHashMap.newKeySet();
+        changedDuringRebuild = pending;
+
+        Segment fresh = new Segment();
+        Map<Long, List<ProductCategoryRow>> categories = groupByProduct(productRepo.findAllCategoryRows());
+        for (ProductRow row : productRepo.findAllRows()) {
+            fresh.put(row, categories.getOrDefault(row.id(), List.of()));
+        }
+
+        int drift;
+        lock.writeLock().lock();
+        try {
+            drift = ready ? segment.differences(fresh) : 0;
+            if (!ready || drift > 0) {
+                generation.incrementAndGet();
+            }
+            segment = fresh;
+            changedDuringRebuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // Cambios confirmados mientras se leía la BD
+        if (!pending.isEmpty()) {
+            refresh(pending);
+        }
+
+        if (drift > 0) {
+            logger.warn("Índice de búsqueda reconstruido: {} productos, {} diferencias corregidas",
+                    fresh.liveCount(), drift);
+        } else {
+            logger.info("Índice de búsqueda reconstruido: {} productos en {} ms",
+                    fresh.liveCount(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Recarga productos desde la BD: los que ya no existen se quitan del índice
+     */
+    private void refresh(Iterable<Long> productIds) {
+        List<Long> ids = new ArrayList<>();
+        productIds.forEach(ids::add);
+
+        Map<Long, ProductRow> rows = productRepo.findRowsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductRow::id, row -> row));
+        Map<Long, List<ProductCategoryRow>> categories = groupByProduct(productRepo.findCategoryRowsByProductIdIn(ids));
+
+        lock.writeLock().lock();
+        try {
+            for (Long id : ids) {
+                ProductRow row = rows.get(id);
+                if (row == null) {
+                    segment.remove(id);
+                } else {
+                    segment.put(row, categories.getOrDefault(id, List.of()));
+                }
+            }
+            generation.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean enabled() {
+        return searchProperties.getMode() == ProductSearchProperties.Mode.MEMORY;
+    }
+
+    private static Map<Long, List<ProductCategoryRow>> groupByProduct(List<ProductCategoryRow> categoryRows) {
+        return categoryRows.stream().collect(Collectors.groupingBy(ProductCategoryRow::productId));
+    }
+
+    /**
+     * Minúsculas, sin tildes, separado por cualquier carácter no alfanumérico
+     * "Teclado Inalámbrico-USB" → [teclado, inalambrico, usb]
+     *
+     * También la usa la búsqueda en BD mientras el índice se construye
+     * (ProductRepositoryImpl, token_match), para que ambas encuentren lo mismo
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = Normalizer.normalize(text.toLowerCase(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "");
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : normalized.split("[^\\p{Alnum}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return List.copyOf(tokens);
+    }
+
+    /**
+     * Contenido del índice. Se modifica solo con el write lock tomado;
+     * la reconstrucción arma uno nuevo y lo reemplaza completo.
+     */
+    private static final class Segment {
+
+        private static final long[] NO_CATEGORIES = new long[0];
+
+        private final TreeMap<String, IntPostingList> postings = new TreeMap<>();
+        private final Map<Long, Integer> docByProduct = new HashMap<>();
+        private final BitSet live = new BitSet();
+
+        private ProductRow[] rows = new ProductRow[1024];
+        private ProductCategoryRow[][] categoryRows = new ProductCategoryRow[1024][];
+        private double[] prices = new double[1024];
+        private long[] ownerIds = new long[1024];
+        private long[][] categoryIds = new long[1024][];
+        private int docCount;
+
+        void put(ProductRow row, List<ProductCategoryRow> unordered) {
+            remove(row.id());
+
+            // Orden fijo por ID de categoría: permite comparar índices en differences()
+            List<ProductCategoryRow> categories = unordered.stream()
+                    .sorted(Comparator.comparing(ProductCategoryRow::categoryId))
+                    .toList();
+
+            int doc = docCount++;
+            ensureCapacity(docCount);
+            rows[doc] = row;
+            categoryRows[doc] = categories.toArray(ProductCategoryRow[]::new);
+            prices[doc] = row.price();
+            ownerIds[doc] = row.ownerId();
+            categoryIds[doc] = categories.isEmpty()
+                    ? NO_CATEGORIES
+                    : categories.stream().mapToLong(ProductCategoryRow::categoryId).toArray();
+
+            Set<String> tokens = new LinkedHashSet<>(tokenize(row.name()));
+            tokens.addAll(tokenize(row.description()));
+            for (String token : tokens) {
+                postings.computeIfAbsent(token, key -> new IntPostingList()).add(doc);
+            }
+
+            live.set(doc);
+            docByProduct.put(row.id(), doc);
+        }
+
+        void remove(Long productId) {
+            Integer doc = docByProduct.remove(productId);
+            if (doc != null) {
+                live.clear(doc);
+                rows[doc] = null;
+                categoryRows[doc] = null;
+                categoryIds[doc] = null;
+            }
+        }
+
+        int liveCount() {
+            return docByProduct.size();
+        }
+
+        /**
+         * Documentos vigentes que contienen todos los términos
+         * (el último término como prefijo)
+         */
+        BitSet match(List<String> terms) {
+            BitSet result = (BitSet) live.clone();
+            for (int i = 0; i < terms.size() && !result.isEmpty(); i++) {
+                String term = terms.get(i);
+                BitSet termDocs = new BitSet(docCount);
+                if (i == terms.size() - 1) {
+                    for (IntPostingList list : postings.subMap(term, true, term + Character.MAX_VALUE, false)
+                            .values()) {
+                        list.addTo(termDocs);
+                    }
+                } else {
+                    IntPostingList list = postings.get(term);
+                    if (list != null) {
+                        list.addTo(termDocs);
+                    }
+                }
+                result.and(termDocs);
+            }
+            return result;
+        }
+
+        boolean accepts(int doc, ProductFilter filter) {
+            if (filter.ownerId() != null && ownerIds[doc] != filter.ownerId()) {
+                return false;
+            }
+            if (filter.minPrice() != null && prices[doc] < filter.minPrice()) {
+                return false;
+            }
+            if (filter.maxPrice() != null && prices[doc] > filter.maxPrice()) {
+                return false;
+            }
+            if (filter.categoryId() != null) {
+                for (long id : categoryIds[doc]) {
+                    if (id == filter.categoryId()) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Relevancia: cada término cuenta 2 si está en el nombre y 1 si solo
+         * está en la descripción. Empates por ID
+         */
+        Comparator<Integer> byRelevance(List<String> terms) {
+            Map<Integer, Integer> scores = new HashMap<>();
+            Comparator<Integer> byScore = Comparator.comparingInt(
+                    doc -> scores.computeIfAbsent(doc, key -> score(key, terms)));
+            return byScore.reversed().thenComparingLong(doc -> rows[doc].id());
+        }
+
+        private int score(int doc, List<String> terms) {
+            List<String> nameTokens = tokenize(rows[doc].name());
+            List<String> descriptionTokens = tokenize(rows[doc].description());
+            int score = 0;
+            for (String term : terms) {
+                if (nameTokens.stream().anyMatch(token -> token.startsWith(term))) {
+                    score += 2;
+                } else if (descriptionTokens.stream().anyMatch(token -> token.startsWith(term))) {
+                    score += 1;
+                }
+            }
+            return score;
+        }
+
+        /**
+         * Orden equivalente al de la BD (NULL al final en ASC) con el ID como desempate
+         */
+        Comparator<Integer> bySort(Sort sort) {
+            Comparator<Integer> order = null;
+            for (Sort.Order sortOrder : sort) {
+                Comparator<Integer> next = byProperty(sortOrder.getProperty());
+                if (sortOrder.isDescending()) {
+                    next = next.reversed();
+                }
+                order = order == null ? next : order.thenComparing(next);
+            }
+            Comparator<Integer> byId = Comparator.comparingLong(doc -> rows[doc].id());
+            return order == null ? byId : order.thenComparing(byId);
+        }
+
+        /**
+         * Orden natural del valor de la propiedad, NULL al final
+         *
+         * Cada propiedad tiene un solo tipo (String, Double, LocalDateTime...),
+         * así que comparar los Comparable sin tipo es seguro
+         */
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private Comparator<Integer> byProperty(String property) {
+            Comparator<Comparable> natural = Comparator.nullsLast(Comparator.naturalOrder());
+            return (a, b) -> natural.compare(sortKey(a, property), sortKey(b, property));
+        }
+
+        private Comparable<?> sortKey(int doc, String property) {
+            ProductRow row = rows[doc];
+            return switch (property) {
+                case "id" -> row.id();
+                case "name" -> row.name();
+                case "price" -> row.price();
+                case "stock" -> row.stock();
+                case "createdAt" -> row.createdAt();
+                case "updatedAt" -> row.updatedAt();
+                case "owner.name" -> row.ownerName();
+                case "owner.email" -> row.ownerEmail();
+                // Primera categoría en orden alfabético (igual que la consulta en BD)
+                case "categories.name" -> Arrays.stream(categoryRows[doc])
+                        .map(ProductCategoryRow::name)
+                        .min(Comparator.naturalOrder())
+                        .orElse(null);
+                default -> throw new IllegalArgumentException("Propiedad de ordenamiento no válida: " + property);
+            };
+        }
+
+        ProductResponseDto toResponseDto(int doc) {
+            return ProductMapper.toResponse(rows[doc], Arrays.asList(categoryRows[doc]));
+        }
+
+        /**
+         * Productos que faltan, sobran o tienen datos distintos respecto a otro índice
+         */
+        int differences(Segment other) {
+            int differences = 0;
+            for (Map.Entry<Long, Integer> entry : docByProduct.entrySet()) {
+                Integer otherDoc = other.docByProduct.get(entry.getKey());
+                if (otherDoc == null
+                        || !rows[entry.getValue()].equals(other.rows[otherDoc])
+                        || !Arrays.equals(categoryRows[entry.getValue()], other.categoryRows[otherDoc])) {
+                    differences++;
+                }
+            }
+            for (Long productId : other.docByProduct.keySet()) {
+                if (!docByProduct.containsKey(productId)) {
+                    differences++;
+                }
+            }
+            return differences;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= rows.length) {
+                return;
+            }
+            int newLength = Math.max(capacity, rows.length * 2);
+            rows = Arrays.copyOf(rows, newLength);
+            categoryRows = Arrays.copyOf(categoryRows, newLength);
+            prices = Arrays.copyOf(prices, newLength);
+            ownerIds = Arrays.copyOf(ownerIds, newLength);
+            categoryIds = Arrays.copyOf(categoryIds, newLength);
+        }
+    }
+}
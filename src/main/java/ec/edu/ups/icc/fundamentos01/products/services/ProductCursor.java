@@ -0,0 +1,100 @@
+package ec.edu.ups.icc.fundamentos01.products.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import ec.edu.ups.icc.fundamentos01.exception.domain.BadRequestException;
+import ec.edu.ups.icc.fundamentos01.products.projections.ProductRow;
+
+/**
+ * Cursor opaco para la paginación por keyset de productos
+ * 
+ * Guarda el orden usado y la clave de la última fila devuelta:
+ * propiedad | dirección | valor | id  →  Base64 URL-safe
+ * 
+ * El cliente NO debe interpretarlo: solo lo reenvía en ?cursor= para
+ * pedir la página siguiente.
+ * 
+ * Solo se admiten propiedades NOT NULL con orden total junto al ID.
+ * Quedan fuera "updatedAt" (nula hasta la primera edición) y
+ * "categories.name" (Many-to-Many: un producto tendría varias posiciones).
+ */
+public record ProductCursor(String property, boolean descending, Object lastValue, Long lastId) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Propiedad → conversión del valor guardado en el cursor a su tipo Java
+     */
+    private static final Map<String, Function<String, Object>> PARSERS = Map.of(
+            "id", Long::valueOf,
+            "name", value -> value,
+            "price", Double::valueOf,
+            "stock", Integer::valueOf,
+            "createdAt", LocalDateTime::parse,
+            "owner.name", value -> value,
+            "owner.email", value -> value);
+
+    public static final Set<String> KEYSET_PROPERTIES = PARSERS.keySet();
+
+    /**
+     * Cursor que apunta a la posición inmediatamente después de la fila
+     */
+    public static ProductCursor after(ProductRow row, String property, boolean descending) {
+        return new ProductCursor(property, descending, valueOf(row, property), row.id());
+    }
+
+    public String encode() {
+        String raw = property + SEPARATOR + (descending ? "desc" : "asc") + SEPARATOR
+                + lastValue + SEPARATOR + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws BadRequestException si el cursor no fue generado por este servicio
+     */
+    public static ProductCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+
+            // El valor puede contener "|" (ej: nombres): propiedad y dirección van
+            // al inicio y el ID al final
+            int first = raw.indexOf(SEPARATOR);
+            int second = raw.indexOf(SEPARATOR, first + 1);
+            int last = raw.lastIndexOf(SEPARATOR);
+            if (first < 0 || second < 0 || last <= second) {
+                throw new IllegalArgumentException();
+            }
+
+            String property = raw.substring(0, first);
+            String direction = raw.substring(first + 1, second);
+            Function<String, Object> parser = PARSERS.get(property);
+            if (parser == null || !(direction.equals("asc") || direction.equals("desc"))) {
+                throw new IllegalArgumentException();
+            }
+
+            Object value = parser.apply(raw.substring(second + 1, last));
+            Long id = Long.valueOf(raw.substring(last + 1));
+            return new ProductCursor(property, direction.equals("desc"), value, id);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Cursor no válido");
+        }
+    }
+
+    private static Object valueOf(ProductRow row, String property) {
+        return switch (property) {
+            case "id" -> row.id();
+            case "name" -> row.name();
+            case "price" -> row.price();
+            case "stock" -> row.stock();
+            case "createdAt" -> row.createdAt();
+            case "owner.name" -> row.ownerName();
+            case "owner.email" -> row.ownerEmail();
+            default -> throw new IllegalArgumentException("Propiedad sin keyset: " + property);
+        };
+    }
+}
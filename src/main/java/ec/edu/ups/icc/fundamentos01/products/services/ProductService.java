@@ -1,11 +1,18 @@
 package ec.edu.ups.icc.fundamentos01.products.services;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Slice;
 
+import ec.edu.ups.icc.fundamentos01.core.web.ResourceVersion;
+import ec.edu.ups.icc.fundamentos01.core.web.WritePrecondition;
+import ec.edu.ups.icc.fundamentos01.products.dtos.BulkProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.BulkUpdateProductDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.CreateProductDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.CursorPageDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.PartialUpdateProductDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.UpdateProductDto;
@@ -19,9 +26,18 @@ public interface ProductService {
 
     ProductResponseDto create(CreateProductDto dto);
 
-    ProductResponseDto update(Long id, UpdateProductDto dto, UserDetailsImpl currentUser);
+    /**
+     * @param precondition If-Match / If-Unmodified-Since del cliente, se valida
+     *                     contra el producto cargado para escribir
+     *                     (WritePrecondition.NONE = escritura no condicional)
+     */
+    ProductResponseDto update(Long id, UpdateProductDto dto, UserDetailsImpl currentUser,
+            WritePrecondition precondition);
 
-    ProductResponseDto partialUpdate(Long id, PartialUpdateProductDto dto);
+    /**
+     * @param precondition Igual que en update()
+     */
+    ProductResponseDto partialUpdate(Long id, PartialUpdateProductDto dto, WritePrecondition precondition);
 
     void delete(Long id, UserDetailsImpl currentUser);
 
@@ -29,8 +45,24 @@ public interface ProductService {
 
     List<ProductResponseDto> findAll();
 
+    /**
+     * Recorre TODOS los productos por lotes (keyset sobre el ID), cada lote en
+     * su propia consulta corta (para exports en streaming)
+     * 
+     * Sin transacción que dure todo el recorrido: un cliente lento no retiene
+     * una conexión del pool. A cambio no es una foto única del catálogo; cada
+     * producto sale una sola vez, con los datos de cuando se leyó su lote
+     * 
+     * @param action Se ejecuta por cada producto, en orden de ID
+     */
+    void exportAll(Consumer<ProductResponseDto> action);
+
     List<ProductResponseDto> findByUserId(Long userId);
 
+    /**
+     * Todos los productos de una categoría (sin paginación)
+     * Para categorías grandes usar las variantes paginada, por cursor o streaming
+     */
     List<ProductResponseDto> findByCategoryId(Long categoryId);
 
     // ============== MÉTODOS CON PAGINACIÓN ==============
@@ -45,14 +77,25 @@ public interface ProductService {
      */
     Slice<ProductResponseDto> findAllSlice(int page, int size, String[] sort);
 
+    /**
+     * Obtiene productos con paginación por cursor (keyset), sin OFFSET
+     * 
+     * @param cursor Cursor devuelto por la página anterior (null = primera página)
+     * @param sort   Orden de la primera página; con cursor se usa el orden del cursor
+     */
+    CursorPageDto<ProductResponseDto> findAllByCursor(String cursor, int size, String[] sort);
+
     /**
      * Busca productos con filtros y paginación
+     * 
+     * @param ranked Si hay texto de búsqueda, ordena por relevancia en lugar de sort
      */
     Page<ProductResponseDto> findWithFilters(
             String name,
             Double minPrice,
             Double maxPrice,
             Long categoryId,
+            boolean ranked,
             int page,
             int size,
             String[] sort);
@@ -69,4 +112,115 @@ public interface ProductService {
             int page,
             int size,
             String[] sort);
+
+    /**
+     * Productos de un usuario con filtros y paginación, buscando el nombre
+     * como subcadena (LIKE) en la BD sin importar products.search.mode
+     * 
+     * Semántica de /api/users/{id}/products-v2: sus tres variantes (lista,
+     * página y stream) devuelven los mismos productos
+     */
+    Page<ProductResponseDto> findByUserIdWithSubstringFilters(
+            Long userId,
+            String name,
+            Double minPrice,
+            Double maxPrice,
+            Long categoryId,
+            int page,
+            int size,
+            String[] sort);
+
+    /**
+     * Recorre TODOS los productos de un usuario que cumplen los filtros, con el
+     * nombre como subcadena (igual que findByUserIdWithSubstringFilters)
+     * 
+     * El usuario y los filtros se validan al llamar; las filas se leen de la
+     * BD por lotes a medida que se consume el Stream (para respuestas NDJSON)
+     */
+    Stream<ProductResponseDto> streamByUserIdWithSubstringFilters(
+            Long userId,
+            String name,
+            Double minPrice,
+            Double maxPrice,
+            Long categoryId);
+
+    /**
+     * Productos de una categoría con paginación (Page)
+     */
+    Page<ProductResponseDto> findByCategoryId(Long categoryId, int page, int size, String[] sort);
+
+    /**
+     * Productos de una categoría con paginación por cursor (keyset)
+     */
+    CursorPageDto<ProductResponseDto> findByCategoryIdByCursor(Long categoryId, String cursor, int size,
+            String[] sort);
+
+    /**
+     * Recorre TODOS los productos de una categoría, leídos por lotes (para NDJSON)
+     */
+    Stream<ProductResponseDto> streamByCategoryId(Long categoryId);
+
+    // ============== RESERVAS DE STOCK ==============
+
+    /**
+     * Descuenta stock de forma atómica
+     * 
+     * 409 (ConflictException) si no hay stock suficiente
+     */
+    void reserveStock(Long id, int quantity);
+
+    /**
+     * Devuelve stock reservado (checkout cancelado o expirado)
+     * 
+     * No hay registro de cada reserva: solo ADMIN (ver ProductController).
+     * 409 (ConflictException) si el stock pasaría del máximo
+     */
+    void releaseStock(Long id, int quantity);
+
+    // ============== VERSIONES PARA GET CONDICIONAL ==============
+
+    /**
+     * Versión (ETag / Last-Modified) de un producto, sin leer el producto completo
+     * 
+     * El ETag es fuerte y empieza por la @Version del producto (revision), así
+     * sirve también para If-Match en PUT / PATCH
+     */
+    ResourceVersion findVersion(Long id);
+
+    /**
+     * Versión del conjunto de productos que cumplen los filtros (null = sin filtro)
+     * 
+     * Cambia si se crea, modifica o borra un producto del conjunto, si cambia su
+     * owner o si cambian las categorías
+     * 
+     * Con products.search.mode=memory sale del índice de búsqueda, sin consultar
+     * la BD; null mientras el índice se construye
+     */
+    ResourceVersion findVersionWithFilters(
+            String name,
+            Double minPrice,
+            Double maxPrice,
+            Long categoryId);
+
+    /**
+     * Versión de los productos de un usuario que cumplen los filtros
+     */
+    ResourceVersion findVersionByUserIdWithFilters(
+            Long userId,
+            String name,
+            Double minPrice,
+            Double maxPrice,
+            Long categoryId);
+
+    // ============== OPERACIONES BULK ==============
+
+    /**
+     * Crea productos en lote, con un resultado por fila
+     */
+    BulkProductResponseDto bulkCreate(List<CreateProductDto> items);
+
+    /**
+     * Actualiza productos en lote, con un resultado por fila
+     */
+    BulkProductResponseDto bulkUpdate(List<BulkUpdateProductDto> items, UserDetailsImpl currentUser);
 }
@@ -1,10 +1,23 @@
 package ec.edu.ups.icc.fundamentos01.products.services;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -17,8 +30,15 @@ import org.springframework.transaction.annotation.Transactional;
 
 import ec.edu.ups.icc.fundamentos01.categories.entity.CategoryEntity;
 import ec.edu.ups.icc.fundamentos01.categories.entity.CategoryResponseDto;
-import ec.edu.ups.icc.fundamentos01.categories.repositories.CategoryRepository;
+import ec.edu.ups.icc.fundamentos01.categories.Services.CategoryCache;
+import ec.edu.ups.icc.fundamentos01.config.ProductSearchProperties;
+import ec.edu.ups.icc.fundamentos01.core.web.ResourceVersion;
+import ec.edu.ups.icc.fundamentos01.core.web.WritePrecondition;
+import ec.edu.ups.icc.fundamentos01.products.dtos.BulkProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.BulkProductResultDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.BulkUpdateProductDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.CreateProductDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.CursorPageDto;
 import ec.edu.ups.icc.fundamentos01.exception.domain.BadRequestException;
 import ec.edu.ups.icc.fundamentos01.exception.domain.NotFoundException;
 import ec.edu.ups.icc.fundamentos01.exception.domain.ConflictException;
@@ -26,12 +46,24 @@ import ec.edu.ups.icc.fundamentos01.products.dtos.PartialUpdateProductDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.UpdateProductDto;
 import ec.edu.ups.icc.fundamentos01.products.entities.ProductEntity;
+import ec.edu.ups.icc.fundamentos01.products.events.ProductChangedEvent;
+import ec.edu.ups.icc.fundamentos01.products.events.ProductNamesChangedEvent;
+import ec.edu.ups.icc.fundamentos01.products.mappers.ProductMapper;
 import ec.edu.ups.icc.fundamentos01.products.models.Product;
+import ec.edu.ups.icc.fundamentos01.products.projections.ProductCategoryRow;
+import ec.edu.ups.icc.fundamentos01.products.projections.ProductNameRow;
+import ec.edu.ups.icc.fundamentos01.products.projections.ProductRow;
+import ec.edu.ups.icc.fundamentos01.products.projections.ProductVersionRow;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductFilter;
 import ec.edu.ups.icc.fundamentos01.products.repositories.ProductRepository;
+import ec.edu.ups.icc.fundamentos01.products.search.ProductNameFilter;
+import ec.edu.ups.icc.fundamentos01.products.search.ProductSearchIndex;
+import ec.edu.ups.icc.fundamentos01.products.stock.StockReservationLedger;
 import ec.edu.ups.icc.fundamentos01.security.services.UserDetailsImpl;
 import ec.edu.ups.icc.fundamentos01.users.entities.UserEntity;
 import ec.edu.ups.icc.fundamentos01.users.repositories.UserRepository;
-import org.hibernate.Hibernate;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 
 @Service
 public class ProductServiceImpl implements ProductService {
@@ -39,6 +71,12 @@ public class ProductServiceImpl implements ProductService {
     private static final int MIN_PAGE_SIZE = 1;
     private static final int MAX_PAGE_SIZE = 100;
 
+    // Filas por consulta al recorrer un resultado completo (streaming)
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    // Filas máximas por solicitud bulk
+    private static final int MAX_BULK_SIZE = 5_000;
+
     private static final Set<String> ALLOWED_SORT_PROPERTIES = Set.of(
             "id",
             "name",
@@ -52,27 +90,43 @@ public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepo;
     private final UserRepository userRepo;
-    private final CategoryRepository categoryRepo;
-
-    public ProductServiceImpl(ProductRepository productRepo, UserRepository userRepo, CategoryRepository categoryRepo) {
+    private final CategoryCache categoryCache;
+    private final ProductSearchProperties searchProperties;
+    private final ProductSearchIndex searchIndex;
+    private final StockReservationLedger stockLedger;
+    private final ProductNameFilter nameFilter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+
+    public ProductServiceImpl(ProductRepository productRepo, UserRepository userRepo, CategoryCache categoryCache,
+            ProductSearchProperties searchProperties, ProductSearchIndex searchIndex,
+            StockReservationLedger stockLedger, ProductNameFilter nameFilter,
+            ApplicationEventPublisher eventPublisher, Validator validator) {
         this.productRepo = productRepo;
         this.userRepo = userRepo;
-        this.categoryRepo = categoryRepo;
+        this.categoryCache = categoryCache;
+        this.searchProperties = searchProperties;
+        this.searchIndex = searchIndex;
+        this.stockLedger = stockLedger;
+        this.nameFilter = nameFilter;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
     }
 
     private Set<CategoryEntity> validateAndGetCategories(Set<Long> categoryIds) {
-        Set<CategoryEntity> categories = new HashSet<>();
-        for (Long categoryId : categoryIds) {
-            CategoryEntity category = categoryRepo.findById(categoryId)
-                    .orElseThrow(() -> new NotFoundException("Categoría no encontrada con ID: " + categoryId));
-            categories.add(category);
+        // Desde el cache de categorías: como mucho una consulta para los IDs que falten
+        Map<Long, CategoryEntity> found = categoryCache.findAllById(categoryIds);
+        Set<Long> missing = missingCategoryIds(categoryIds, found);
+        if (!missing.isEmpty()) {
+            throw new NotFoundException(missingCategoriesMessage(missing));
         }
-        return categories;
+        return new HashSet<>(found.values());
     }
 
-    private CategoryEntity validateCategory(Long categoryId) {
-        return categoryRepo.findById(categoryId)
-                .orElseThrow(() -> new NotFoundException("Categoría no encontrada con ID: " + categoryId));
+    private void validateCategory(Long categoryId) {
+        if (!categoryCache.existsById(categoryId)) {
+            throw new NotFoundException("Categoría no encontrada con ID: " + categoryId);
+        }
     }
 
     // ============== MÉTODOS BÁSICOS ==============
@@ -80,23 +134,29 @@ public class ProductServiceImpl implements ProductService {
     @Override
     @Transactional(readOnly = true)
     public List<ProductResponseDto> findAll() {
-        return productRepo.findAll()
-                .stream()
-                .map(this::toResponseDto)
-                .toList();
+        return toResponseDtos(productRepo.findAllRows(), productRepo.findAllCategoryRows());
+    }
+
+    @Override
+    public void exportAll(Consumer<ProductResponseDto> action) {
+        // Sin @Transactional: action escribe al cliente, a su ritmo. Cada lote
+        // (keyset por ID) usa una conexión solo mientras dura su consulta
+        try (Stream<ProductResponseDto> products = stream(ProductFilter.NONE)) {
+            products.forEach(action);
+        }
     }
 
     @Override
     @Transactional(readOnly = true)
     public ProductResponseDto findOne(Long id) {
-        ProductEntity entity = productRepo.findById(id)
+        ProductEntity entity = productRepo.findWithRelationsById(id)
                 .orElseThrow(() -> new NotFoundException("Producto no encontrado"));
         return toResponseDto(entity);
     }
 
     @Override
     public ProductResponseDto create(CreateProductDto dto) {
-        if (productRepo.findByName(dto.name).isPresent()) {
+        if (findIdByName(dto.name).isPresent()) {
             throw new ConflictException("Ya existe un producto con el nombre: " + dto.name);
         }
 
@@ -110,6 +170,9 @@ public class ProductServiceImpl implements ProductService {
         entity.setCategories(categories);
 
         ProductEntity saved = productRepo.save(entity);
+        eventPublisher.publishEvent(new ProductChangedEvent(
+                saved.getId(), ProductChangedEvent.Type.CREATED, categoryIds(categories)));
+        eventPublisher.publishEvent(new ProductNamesChangedEvent(Set.of(saved.getName())));
 
         return toResponseDto(saved);
     }
@@ -124,24 +187,23 @@ public class ProductServiceImpl implements ProductService {
      * @param id ID del producto a actualizar
      * @param dto Datos para actualizar
      * @param currentUser Usuario autenticado (del JWT)
+     * @param precondition If-Match / If-Unmodified-Since, NONE si no es condicional
      * @throws AccessDeniedException si no eres dueño ni tienes rol privilegiado
      */
     @Override
     @Transactional
-    public ProductResponseDto update(Long id, UpdateProductDto dto, UserDetailsImpl currentUser) {
+    public ProductResponseDto update(Long id, UpdateProductDto dto, UserDetailsImpl currentUser,
+            WritePrecondition precondition) {
         // 1. VALIDAR NOMBRE ÚNICO
-        productRepo.findByName(dto.name).ifPresent(existing -> {
-            if (!existing.getId().equals(id)) {
-                throw new ConflictException("Ya existe otro producto con el nombre: " + dto.name);
-            }
-        });
+        validateNameFree(dto.name, id);
 
-        // 2. BUSCAR PRODUCTO EXISTENTE
-        ProductEntity existingEntity = productRepo.findById(id)
+        // 2. BUSCAR PRODUCTO EXISTENTE (con owner y categorías)
+        ProductEntity existingEntity = productRepo.findWithRelationsById(id)
                 .orElseThrow(() -> new NotFoundException("Producto no encontrado"));
 
         // 3. VALIDACIÓN DE OWNERSHIP (pasando el usuario)
         validateOwnership(existingEntity, currentUser);
+        checkPrecondition(existingEntity, precondition);
 
         // Si pasa la validación, actualizar
         // 4. ACTUALIZAR CAMPOS
@@ -152,20 +214,32 @@ public class ProductServiceImpl implements ProductService {
 
         // 5. VALIDAR Y ACTUALIZAR CATEGORÍAS
         Set<CategoryEntity> categories = validateAndGetCategories(dto.categoryIds);
+        Set<Long> changedCategoryIds = changedCategoryIds(existingEntity.getCategories(), categories);
         existingEntity.clearCategories();
         existingEntity.setCategories(categories);
+        if (!changedCategoryIds.isEmpty()) {
+            // Un cambio solo en la colección no dispara @PreUpdate, y updatedAt
+            // es la versión del producto (ETag / Last-Modified)
+            existingEntity.setUpdatedAt(LocalDateTime.now());
+        }
 
         // 6. PERSISTIR Y RESPONDER
         ProductEntity saved = productRepo.save(existingEntity);
+        eventPublisher.publishEvent(new ProductChangedEvent(
+                saved.getId(), ProductChangedEvent.Type.UPDATED, changedCategoryIds));
+        eventPublisher.publishEvent(new ProductNamesChangedEvent(Set.of(saved.getName())));
         return toResponseDto(saved);
     }
 
     @Override
-    public ProductResponseDto partialUpdate(Long id, PartialUpdateProductDto dto) {
-        ProductEntity existingEntity = productRepo.findById(id)
+    @Transactional
+    public ProductResponseDto partialUpdate(Long id, PartialUpdateProductDto dto, WritePrecondition precondition) {
+        ProductEntity existingEntity = productRepo.findWithRelationsById(id)
                 .orElseThrow(() -> new NotFoundException("Producto no encontrado"));
+        checkPrecondition(existingEntity, precondition);
 
         if (dto.name != null) {
+            validateNameFree(dto.name, id);
             existingEntity.setName(dto.name);
         }
         if (dto.description != null) {
@@ -179,6 +253,10 @@ public class ProductServiceImpl implements ProductService {
         }
 
         ProductEntity saved = productRepo.save(existingEntity);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(), ProductChangedEvent.Type.UPDATED));
+        if (dto.name != null) {
+            eventPublisher.publishEvent(new ProductNamesChangedEvent(Set.of(saved.getName())));
+        }
         return toResponseDto(saved);
     }
 
@@ -196,8 +274,8 @@ public class ProductServiceImpl implements ProductService {
     @Override
     @Transactional
     public void delete(Long id, UserDetailsImpl currentUser) {
-        // 1. BUSCAR PRODUCTO EXISTENTE
-        ProductEntity product = productRepo.findById(id)
+        // 1. BUSCAR PRODUCTO EXISTENTE (con owner y categorías)
+        ProductEntity product = productRepo.findWithRelationsById(id)
                 .orElseThrow(() -> new NotFoundException("Producto no encontrado"));
         
         // 2. VALIDACIÓN DE OWNERSHIP (pasando el usuario)
@@ -205,16 +283,18 @@ public class ProductServiceImpl implements ProductService {
 
         // Si pasa la validación, eliminar
         // 3. ELIMINAR
+        Set<Long> categoryIds = categoryIds(product.getCategories());
         productRepo.delete(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, ProductChangedEvent.Type.DELETED, categoryIds));
     }
 
+    /**
+     * Se llama en cada tecla del formulario: casi siempre lo resuelve el
+     * filtro de nombres, sin consultar la BD
+     */
     @Override
     public boolean validateProductName(String name, int id) {
-        productRepo.findByName(name).ifPresent(existing -> {
-            if (existing.getId() != id) {
-                throw new ConflictException("Ya existe otro producto con el nombre: " + name);
-            }
-        });
+        validateNameFree(name, (long) id);
         return true;
     }
 
@@ -223,7 +303,7 @@ public class ProductServiceImpl implements ProductService {
     public List<ProductResponseDto> findByUserId(Long userId) {
         userRepo.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Usuario no encontrado con ID: " + userId));
-        return productRepo.findByOwnerId(userId)
+        return productRepo.findWithRelationsByOwnerId(userId)
                 .stream()
                 .map(this::toResponseDto)
                 .toList();
@@ -233,11 +313,183 @@ public class ProductServiceImpl implements ProductService {
     @Transactional(readOnly = true)
     public List<ProductResponseDto> findByCategoryId(Long categoryId) {
         validateCategory(categoryId);
+        return stream(ProductFilter.ofCategory(categoryId)).toList();
+    }
 
-        return productRepo.findByCategoriesId(categoryId)
+    // ============== OPERACIONES BULK ==============
+
+    /**
+     * Crea productos en lote
+     * 
+     * - Owners, categorías y nombres existentes se resuelven con UNA consulta
+     *   cada uno, no por fila
+     * - Las filas inválidas se reportan (FAILED) y no impiden crear las demás
+     * - Las válidas se insertan con saveAll en la misma transacción; Hibernate
+     *   agrupa los INSERT en lotes JDBC (hibernate.jdbc.batch_size)
+     */
+    @Override
+    @Transactional
+    public BulkProductResponseDto bulkCreate(List<CreateProductDto> items) {
+        validateBulkSize(items);
+
+        List<Map<String, String>> errors = validateRows(items);
+
+        // ----- Consultas por conjunto -----
+        Map<Long, UserEntity> owners = userRepo.findAllById(validRows(items, errors).stream()
+                .map(dto -> dto.userId)
+                .collect(Collectors.toSet()))
                 .stream()
-                .map(this::toResponseDto)
-                .toList();
+                .collect(Collectors.toMap(UserEntity::getId, owner -> owner));
+        Map<Long, CategoryEntity> categories = categoryCache.findAllById(validRows(items, errors).stream()
+                .flatMap(dto -> dto.categoryIds.stream())
+                .collect(Collectors.toSet()));
+        Set<String> takenNames = findNameRows(validRows(items, errors).stream()
+                .map(dto -> dto.name)
+                .collect(Collectors.toSet()))
+                .stream()
+                .map(ProductNameRow::name)
+                .collect(Collectors.toSet());
+
+        // ----- Validación por fila contra lo consultado -----
+        Set<String> namesInRequest = new HashSet<>();
+        List<ProductEntity> toSave = new ArrayList<>();
+        List<Integer> savedIndexes = new ArrayList<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            Map<String, String> rowErrors = errors.get(i);
+            if (!rowErrors.isEmpty()) {
+                continue;
+            }
+            CreateProductDto dto = items.get(i);
+
+            if (takenNames.contains(dto.name) || !namesInRequest.add(dto.name)) {
+                rowErrors.put("name", "Ya existe un producto con el nombre: " + dto.name);
+            }
+            UserEntity owner = owners.get(dto.userId);
+            if (owner == null) {
+                rowErrors.put("userId", "Usuario no encontrado con ID: " + dto.userId);
+            }
+            putMissingCategory(rowErrors, dto.categoryIds, categories);
+            if (!rowErrors.isEmpty()) {
+                continue;
+            }
+
+            ProductEntity entity = Product.fromDto(dto).toEntity(owner);
+            entity.setCategories(pick(categories, dto.categoryIds));
+            toSave.add(entity);
+            savedIndexes.add(i);
+        }
+
+        List<ProductEntity> saved = productRepo.saveAll(toSave);
+
+        List<BulkProductResultDto> results = results(errors, savedIndexes, saved, BulkProductResultDto.Status.CREATED);
+        if (!saved.isEmpty()) {
+            eventPublisher.publishEvent(new ProductChangedEvent(
+                    saved.stream().map(ProductEntity::getId).toList(),
+                    ProductChangedEvent.Type.CREATED,
+                    saved.stream().flatMap(product -> categoryIds(product.getCategories()).stream())
+                            .collect(Collectors.toSet())));
+            eventPublisher.publishEvent(new ProductNamesChangedEvent(
+                    saved.stream().map(ProductEntity::getName).toList()));
+        }
+        return new BulkProductResponseDto(results);
+    }
+
+    /**
+     * Actualiza productos en lote (mismas reglas que update, por fila)
+     * 
+     * Productos (con owner y categorías), categorías y nombres se cargan con
+     * una consulta cada uno. Las filas sin permiso (ownership) fallan solas.
+     */
+    @Override
+    @Transactional
+    public BulkProductResponseDto bulkUpdate(List<BulkUpdateProductDto> items, UserDetailsImpl currentUser) {
+        validateBulkSize(items);
+
+        List<Map<String, String>> errors = validateRows(items);
+
+        // ----- Consultas por conjunto -----
+        Map<Long, ProductEntity> products = productRepo.findWithRelationsByIdIn(validRows(items, errors).stream()
+                .map(dto -> dto.id)
+                .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(ProductEntity::getId, product -> product));
+        Map<Long, CategoryEntity> categories = categoryCache.findAllById(validRows(items, errors).stream()
+                .flatMap(dto -> dto.categoryIds.stream())
+                .collect(Collectors.toSet()));
+        Map<String, Set<Long>> idsByName = findNameRows(validRows(items, errors).stream()
+                .map(dto -> dto.name)
+                .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.groupingBy(ProductNameRow::name,
+                        Collectors.mapping(ProductNameRow::id, Collectors.toSet())));
+
+        // ----- Validación y cambios por fila -----
+        Set<Long> idsInRequest = new HashSet<>();
+        Set<String> namesInRequest = new HashSet<>();
+        Set<Long> changedCategoryIds = new HashSet<>();
+        List<ProductEntity> toSave = new ArrayList<>();
+        List<Integer> savedIndexes = new ArrayList<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            Map<String, String> rowErrors = errors.get(i);
+            if (!rowErrors.isEmpty()) {
+                continue;
+            }
+            BulkUpdateProductDto dto = items.get(i);
+
+            ProductEntity product = products.get(dto.id);
+            if (product == null) {
+                rowErrors.put("id", "Producto no encontrado con ID: " + dto.id);
+            } else if (!idsInRequest.add(dto.id)) {
+                rowErrors.put("id", "El producto se repite en la solicitud: " + dto.id);
+            } else {
+                try {
+                    validateOwnership(product, currentUser);
+                } catch (AccessDeniedException e) {
+                    rowErrors.put("id", e.getMessage());
+                }
+            }
+            boolean takenByOther = idsByName.getOrDefault(dto.name, Set.of()).stream()
+                    .anyMatch(id -> !id.equals(dto.id));
+            if (takenByOther || !namesInRequest.add(dto.name)) {
+                rowErrors.put("name", "Ya existe otro producto con el nombre: " + dto.name);
+            }
+            putMissingCategory(rowErrors, dto.categoryIds, categories);
+            if (!rowErrors.isEmpty()) {
+                continue;
+            }
+
+            Set<CategoryEntity> newCategories = pick(categories, dto.categoryIds);
+            Set<Long> rowChangedCategoryIds = changedCategoryIds(product.getCategories(), newCategories);
+            changedCategoryIds.addAll(rowChangedCategoryIds);
+            if (!rowChangedCategoryIds.isEmpty()) {
+                // Igual que en update(): la colección sola no dispara @PreUpdate
+                product.setUpdatedAt(LocalDateTime.now());
+            }
+
+            product.setName(dto.name);
+            product.setDescription(dto.description);
+            product.setPrice(dto.price);
+            product.setStock(dto.stock);
+            product.clearCategories();
+            product.setCategories(newCategories);
+            toSave.add(product);
+            savedIndexes.add(i);
+        }
+
+        List<ProductEntity> saved = productRepo.saveAll(toSave);
+
+        List<BulkProductResultDto> results = results(errors, savedIndexes, saved, BulkProductResultDto.Status.UPDATED);
+        if (!saved.isEmpty()) {
+            eventPublisher.publishEvent(new ProductChangedEvent(
+                    saved.stream().map(ProductEntity::getId).toList(),
+                    ProductChangedEvent.Type.UPDATED,
+                    changedCategoryIds));
+            eventPublisher.publishEvent(new ProductNamesChangedEvent(
+                    saved.stream().map(ProductEntity::getName).toList()));
+        }
+        return new BulkProductResponseDto(results);
     }
 
     // ============== MÉTODOS CON PAGINACIÓN ==============
@@ -246,26 +498,34 @@ public class ProductServiceImpl implements ProductService {
     @Transactional(readOnly = true)
     public Page<ProductResponseDto> findAll(int page, int size, String[] sort) {
         Pageable pageable = createPageable(page, size, sort);
-        return productRepo.findAll(pageable).map(this::toResponseDto);
+        return assemble(productRepo.findPageOfRows(pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Slice<ProductResponseDto> findAllSlice(int page, int size, String[] sort) {
         Pageable pageable = createPageable(page, size, sort);
-        return productRepo.findAllBy(pageable).map(this::toResponseDto);
+        return assemble(productRepo.findSliceOfRows(pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<ProductResponseDto> findAllByCursor(String cursor, int size, String[] sort) {
+        return findByCursor(ProductFilter.NONE, cursor, size, sort);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<ProductResponseDto> findWithFilters(
             String name, Double minPrice, Double maxPrice, Long categoryId,
-            int page, int size, String[] sort) {
+            boolean ranked, int page, int size, String[] sort) {
 
         validateFilterParameters(minPrice, maxPrice);
         Pageable pageable = createPageable(page, size, sort);
-        return productRepo.findWithFilters(name, minPrice, maxPrice, categoryId, pageable)
-                .map(this::toResponseDto);
+
+        ProductFilter filter = new ProductFilter(
+                name, searchProperties.getMode(), null, minPrice, maxPrice, categoryId);
+        return search(filter, ranked, pageable);
     }
 
     @Override
@@ -278,22 +538,477 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new NotFoundException("Usuario no encontrado con ID: " + userId));
         validateFilterParameters(minPrice, maxPrice);
         Pageable pageable = createPageable(page, size, sort);
-        return productRepo.findByUserIdWithFilters(userId, name, minPrice, maxPrice, categoryId, pageable)
-                .map(this::toResponseDto);
+
+        ProductFilter filter = new ProductFilter(
+                name, searchProperties.getMode(), userId, minPrice, maxPrice, categoryId);
+        return search(filter, false, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductResponseDto> findByUserIdWithSubstringFilters(
+            Long userId, String name, Double minPrice, Double maxPrice, Long categoryId,
+            int page, int size, String[] sort) {
+
+        userRepo.findById(userId)
+                .orElseThrow(() -> new NotFoundException("Usuario no encontrado con ID: " + userId));
+        validateFilterParameters(minPrice, maxPrice);
+        Pageable pageable = createPageable(page, size, sort);
+
+        // Siempre en la BD: el índice en memoria busca por palabras, no por subcadena
+        ProductFilter filter = new ProductFilter(
+                name, ProductSearchProperties.Mode.LIKE, userId, minPrice, maxPrice, categoryId);
+        return assemble(productRepo.findRows(filter, false, pageable));
+    }
+
+    @Override
+    public Stream<ProductResponseDto> streamByUserIdWithSubstringFilters(
+            Long userId, String name, Double minPrice, Double maxPrice, Long categoryId) {
+
+        userRepo.findById(userId)
+                .orElseThrow(() -> new NotFoundException("Usuario no encontrado con ID: " + userId));
+        validateFilterParameters(minPrice, maxPrice);
+
+        return stream(new ProductFilter(
+                name, ProductSearchProperties.Mode.LIKE, userId, minPrice, maxPrice, categoryId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductResponseDto> findByCategoryId(Long categoryId, int page, int size, String[] sort) {
+        validateCategory(categoryId);
+        Pageable pageable = createPageable(page, size, sort);
+        return search(ProductFilter.ofCategory(categoryId), false, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<ProductResponseDto> findByCategoryIdByCursor(Long categoryId, String cursor, int size,
+            String[] sort) {
+        validateCategory(categoryId);
+        return findByCursor(ProductFilter.ofCategory(categoryId), cursor, size, sort);
+    }
+
+    @Override
+    public Stream<ProductResponseDto> streamByCategoryId(Long categoryId) {
+        validateCategory(categoryId);
+        return stream(ProductFilter.ofCategory(categoryId));
+    }
+
+    // ============== RESERVAS DE STOCK ==============
+
+    /**
+     * Sin ledger: un UPDATE condicional (stock >= cantidad) por reserva, atómico
+     * en la BD aunque haya varias instancias. Con ledger: contra el bloque de
+     * stock que esta instancia tomó de la BD (ver StockReservationLedger).
+     */
+    @Override
+    public void reserveStock(Long id, int quantity) {
+        boolean reserved;
+        if (stockLedger.isEnabled()) {
+            reserved = stockLedger.reserve(id, quantity);
+        } else {
+            reserved = productRepo.decrementStock(id, quantity, LocalDateTime.now()) > 0;
+            if (reserved) {
+                eventPublisher.publishEvent(new ProductChangedEvent(id, ProductChangedEvent.Type.STOCK));
+            }
+        }
+        if (!reserved) {
+            // 0 filas: el producto no existe o no alcanza el stock
+            if (!productRepo.existsById(id)) {
+                throw new NotFoundException("Producto no encontrado");
+            }
+            throw new ConflictException("Stock insuficiente para reservar " + quantity + " unidades");
+        }
+    }
+
+    @Override
+    public void releaseStock(Long id, int quantity) {
+        boolean released;
+        if (stockLedger.isEnabled()) {
+            released = stockLedger.release(id, quantity);
+        } else {
+            released = productRepo.incrementStock(id, quantity, LocalDateTime.now()) > 0;
+            if (released) {
+                eventPublisher.publishEvent(new ProductChangedEvent(id, ProductChangedEvent.Type.STOCK));
+            }
+        }
+        if (!released) {
+            // 0 filas: el producto no existe o el stock pasaría del máximo
+            if (!productRepo.existsById(id)) {
+                throw new NotFoundException("Producto no encontrado");
+            }
+            throw new ConflictException("El stock del producto superaría el máximo permitido");
+        }
+    }
+
+    // ============== VERSIONES PARA GET CONDICIONAL ==============
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion findVersion(Long id) {
+        ProductVersionRow row = productRepo.findVersionById(id);
+        if (row.count() == 0) {
+            throw new NotFoundException("Producto no encontrado");
+        }
+        // La revision cambia con cada UPDATE del producto; owner y categorías
+        // también salen en la respuesta. Todo viene de la BD: el ETag es el
+        // mismo en cualquier instancia y tras un reinicio
+        return ResourceVersion.strong(row.revision(), lastModified(row),
+                hexMicros(toInstant(row.ownersModifiedAt())),
+                hexMicros(toInstant(row.categoriesModifiedAt())), row.categoryCount());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion findVersionWithFilters(
+            String name, Double minPrice, Double maxPrice, Long categoryId) {
+
+        validateFilterParameters(minPrice, maxPrice);
+        if (searchProperties.getMode() == ProductSearchProperties.Mode.MEMORY) {
+            // La búsqueda sale del índice: su versión también, sin consultar la BD.
+            // Mientras se construye la búsqueda usa la BD y se responde sin ETag
+            return searchIndex.isReady()
+                    ? ResourceVersion.weak(null, "search", searchIndex.version())
+                    : null;
+        }
+        return version(productRepo.findVersion(new ProductFilter(
+                name, searchProperties.getMode(), null, minPrice, maxPrice, categoryId)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion findVersionByUserIdWithFilters(
+            Long userId, String name, Double minPrice, Double maxPrice, Long categoryId) {
+
+        // Sin esto un usuario borrado y sin productos seguiría respondiendo 304
+        if (!userRepo.existsById(userId)) {
+            throw new NotFoundException("Usuario no encontrado con ID: " + userId);
+        }
+        validateFilterParameters(minPrice, maxPrice);
+        return version(productRepo.findVersion(new ProductFilter(
+                name, searchProperties.getMode(), userId, minPrice, maxPrice, categoryId)));
     }
 
     // ============== MÉTODOS HELPER ==============
 
+    /**
+     * ID del producto con ese nombre, sin cargar la entidad
+     * Si el filtro de nombres lo descarta no se consulta la BD
+     */
+    private Optional<Long> findIdByName(String name) {
+        if (!nameFilter.mightContain(name)) {
+            return Optional.empty();
+        }
+        return productRepo.findIdByName(name);
+    }
+
+    /**
+     * 409 si el nombre pertenece a otro producto (id = producto que se edita)
+     */
+    private void validateNameFree(String name, Long id) {
+        findIdByName(name).ifPresent(existingId -> {
+            if (!existingId.equals(id)) {
+                throw new ConflictException("Ya existe otro producto con el nombre: " + name);
+            }
+        });
+    }
+
+    /**
+     * (ID, nombre) de los productos con alguno de los nombres, consultando
+     * solo los que el filtro de nombres no descarta
+     */
+    private List<ProductNameRow> findNameRows(Set<String> names) {
+        Set<String> candidates = names.stream()
+                .filter(nameFilter::mightContain)
+                .collect(Collectors.toSet());
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        return productRepo.findNameRowsByNameIn(candidates);
+    }
+
+    /**
+     * ETag / Last-Modified de un conjunto de productos
+     * 
+     * El ETag junta cantidad + última modificación de productos, owners y
+     * categorías + cantidad de categorías: un borrado cambia la cantidad aunque
+     * no deje fecha. Solo usa datos de la BD, así coincide entre instancias y
+     * tras un reinicio.
+     * Last-Modified no ve los borrados, por eso el ETag manda (If-None-Match
+     * tiene prioridad sobre If-Modified-Since).
+     */
+    private ResourceVersion version(ProductVersionRow row) {
+        return ResourceVersion.weak(lastModified(row), row.count(),
+                hexMicros(toInstant(row.productsModifiedAt())), hexMicros(toInstant(row.ownersModifiedAt())),
+                hexMicros(toInstant(row.categoriesModifiedAt())), row.categoryCount());
+    }
+
+    private static Instant lastModified(ProductVersionRow row) {
+        return Stream.of(toInstant(row.productsModifiedAt()), toInstant(row.ownersModifiedAt()),
+                toInstant(row.categoriesModifiedAt()))
+                .filter(Objects::nonNull)
+                .max(Instant::compareTo)
+                .orElse(null);
+    }
+
+    /**
+     * If-Match / If-Unmodified-Since contra el producto recién cargado, sin
+     * otra consulta. Desde aquí hasta el commit lo cubre @Version: si otra
+     * escritura gana la carrera el UPDATE no encuentra la versión (409).
+     */
+    private static void checkPrecondition(ProductEntity entity, WritePrecondition precondition) {
+        precondition.check(entity.getVersion(), toInstant(
+                entity.getUpdatedAt() != null ? entity.getUpdatedAt() : entity.getCreatedAt()));
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant() : null;
+    }
+
+    private static String hexMicros(Instant instant) {
+        return instant != null ? Long.toHexString(ChronoUnit.MICROS.between(Instant.EPOCH, instant)) : null;
+    }
+
+    /**
+     * Búsqueda con filtros compartida por la búsqueda global y la de un usuario
+     * 
+     * Con el índice en memoria listo se resuelve sin ir a la BD; si no, la
+     * consulta se arma solo con los filtros presentes (ProductRepositoryImpl)
+     */
+    private Page<ProductResponseDto> search(ProductFilter filter, boolean ranked, Pageable pageable) {
+        if (searchIndex.isReady()) {
+            return searchIndex.search(filter, ranked, pageable);
+        }
+        return assemble(productRepo.findRows(filter, ranked, pageable));
+    }
+
+    private static Set<Long> categoryIds(Set<CategoryEntity> categories) {
+        return categories.stream().map(CategoryEntity::getId).collect(Collectors.toSet());
+    }
+
+    /**
+     * Categorías que ganan o pierden el producto (diferencia simétrica)
+     */
+    private static Set<Long> changedCategoryIds(Set<CategoryEntity> before, Set<CategoryEntity> after) {
+        Set<Long> beforeIds = categoryIds(before);
+        Set<Long> afterIds = categoryIds(after);
+        Set<Long> changed = new HashSet<>(beforeIds);
+        changed.addAll(afterIds);
+        changed.removeIf(categoryId -> beforeIds.contains(categoryId) && afterIds.contains(categoryId));
+        return changed;
+    }
+
+    /**
+     * Página por cursor (keyset) de los productos que cumplen el filtro
+     */
+    private CursorPageDto<ProductResponseDto> findByCursor(ProductFilter filter, String cursor, int size,
+            String[] sort) {
+        validatePageSize(size);
+
+        ProductCursor position = cursor != null && !cursor.isBlank()
+                ? ProductCursor.decode(cursor)
+                : firstPosition(sort);
+
+        // Se pide una fila extra para saber si existe página siguiente sin hacer COUNT
+        List<ProductRow> rows = productRepo.findRowsAfter(filter, position.property(),
+                position.descending(), position.lastValue(), position.lastId(), size + 1);
+
+        boolean hasNext = rows.size() > size;
+        List<ProductRow> pageRows = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = hasNext
+                ? ProductCursor.after(pageRows.get(size - 1), position.property(), position.descending()).encode()
+                : null;
+
+        Map<Long, List<ProductCategoryRow>> categories = loadCategoryRows(pageRows);
+        List<ProductResponseDto> content = pageRows.stream()
+                .map(row -> ProductMapper.toResponse(row, categories.getOrDefault(row.id(), List.of())))
+                .toList();
+
+        return new CursorPageDto<>(content, size, nextCursor);
+    }
+
+    /**
+     * Recorre todos los productos que cumplen el filtro, por lotes de STREAM_BATCH_SIZE
+     * 
+     * Lotes por keyset sobre el ID: cada lote es una consulta corta (filas +
+     * categorías del lote), sin cursor abierto ni transacción que dure todo el
+     * recorrido. Solo un lote vive en memoria a la vez
+     */
+    private Stream<ProductResponseDto> stream(ProductFilter filter) {
+        return Stream.iterate(
+                nextBatch(filter, null),
+                batch -> !batch.isEmpty(),
+                batch -> batch.size() < STREAM_BATCH_SIZE
+                        ? List.of()
+                        : nextBatch(filter, batch.get(batch.size() - 1).id()))
+                .flatMap(batch -> toResponseDtos(batch, productRepo.findCategoryRowsByProductIdIn(
+                        batch.stream().map(ProductRow::id).toList())).stream());
+    }
+
+    private List<ProductRow> nextBatch(ProductFilter filter, Long lastId) {
+        return productRepo.findRowsAfter(filter, "id", false, lastId, lastId, STREAM_BATCH_SIZE);
+    }
+
+    /**
+     * Completa una página de proyecciones con sus categorías
+     * 
+     * Total por página: filas + count (solo Page) + categorías, sin importar
+     * el tamaño de la página y sin entidades administradas
+     */
+    private Page<ProductResponseDto> assemble(Page<ProductRow> rows) {
+        Map<Long, List<ProductCategoryRow>> categories = loadCategoryRows(rows.getContent());
+        return rows.map(row -> ProductMapper.toResponse(row, categories.getOrDefault(row.id(), List.of())));
+    }
+
+    private Slice<ProductResponseDto> assemble(Slice<ProductRow> rows) {
+        Map<Long, List<ProductCategoryRow>> categories = loadCategoryRows(rows.getContent());
+        return rows.map(row -> ProductMapper.toResponse(row, categories.getOrDefault(row.id(), List.of())));
+    }
+
+    private Map<Long, List<ProductCategoryRow>> loadCategoryRows(List<ProductRow> rows) {
+        if (rows.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> ids = rows.stream().map(ProductRow::id).toList();
+        return groupByProduct(productRepo.findCategoryRowsByProductIdIn(ids));
+    }
+
+    private List<ProductResponseDto> toResponseDtos(List<ProductRow> rows, List<ProductCategoryRow> categoryRows) {
+        Map<Long, List<ProductCategoryRow>> categories = groupByProduct(categoryRows);
+        return rows.stream()
+                .map(row -> ProductMapper.toResponse(row, categories.getOrDefault(row.id(), List.of())))
+                .toList();
+    }
+
+    private Map<Long, List<ProductCategoryRow>> groupByProduct(List<ProductCategoryRow> categoryRows) {
+        return categoryRows.stream()
+                .collect(Collectors.groupingBy(ProductCategoryRow::productId));
+    }
+
+    /**
+     * Posición inicial (sin cursor) a partir del parámetro sort
+     * Solo se admite UNA propiedad de ProductCursor.KEYSET_PROPERTIES
+     */
+    private ProductCursor firstPosition(String[] sort) {
+        Sort.Order order = createSort(sort).stream()
+                .reduce((first, second) -> {
+                    throw new BadRequestException("La paginación por cursor admite un solo criterio de ordenamiento");
+                })
+                .orElseThrow();
+
+        if (!ProductCursor.KEYSET_PROPERTIES.contains(order.getProperty())) {
+            throw new BadRequestException(
+                    "Propiedad no soportada en paginación por cursor: " + order.getProperty());
+        }
+        return new ProductCursor(order.getProperty(), order.isDescending(), null, null);
+    }
+
     private Pageable createPageable(int page, int size, String[] sort) {
         if (page < 0) {
             throw new BadRequestException("La página debe ser mayor o igual a 0");
         }
+        validatePageSize(size);
+        Sort sortDefinition = createSort(sort);
+        return PageRequest.of(page, size, sortDefinition);
+    }
+
+    // ============== HELPERS BULK ==============
+
+    private void validateBulkSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new BadRequestException("La solicitud no contiene productos");
+        }
+        if (items.size() > MAX_BULK_SIZE) {
+            throw new BadRequestException("Máximo " + MAX_BULK_SIZE + " productos por solicitud");
+        }
+    }
+
+    /**
+     * Bean Validation de cada fila (las anotaciones de los DTOs)
+     * 
+     * @return Un mapa campo → mensaje por fila (vacío si la fila es válida)
+     */
+    private List<Map<String, String>> validateRows(List<?> items) {
+        List<Map<String, String>> errors = new ArrayList<>(items.size());
+        for (Object item : items) {
+            Map<String, String> rowErrors = new LinkedHashMap<>();
+            if (item == null) {
+                rowErrors.put("row", "La fila está vacía");
+            } else {
+                for (ConstraintViolation<Object> violation : validator.validate(item)) {
+                    rowErrors.put(violation.getPropertyPath().toString(), violation.getMessage());
+                }
+            }
+            errors.add(rowErrors);
+        }
+        return errors;
+    }
+
+    private static <T> List<T> validRows(List<T> items, List<Map<String, String>> errors) {
+        List<T> valid = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (errors.get(i).isEmpty()) {
+                valid.add(items.get(i));
+            }
+        }
+        return valid;
+    }
+
+    private static void putMissingCategory(Map<String, String> rowErrors, Set<Long> categoryIds,
+            Map<Long, CategoryEntity> categories) {
+        Set<Long> missing = missingCategoryIds(categoryIds, categories);
+        if (!missing.isEmpty()) {
+            rowErrors.put("categoryIds", missingCategoriesMessage(missing));
+        }
+    }
+
+    /**
+     * IDs pedidos que no están entre las categorías encontradas, ordenados
+     */
+    private static Set<Long> missingCategoryIds(Set<Long> categoryIds, Map<Long, CategoryEntity> found) {
+        return categoryIds.stream()
+                .filter(categoryId -> !found.containsKey(categoryId))
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private static String missingCategoriesMessage(Set<Long> missing) {
+        if (missing.size() == 1) {
+            return "Categoría no encontrada con ID: " + missing.iterator().next();
+        }
+        return "Categorías no encontradas con IDs: " + missing.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(", "));
+    }
+
+    private static Set<CategoryEntity> pick(Map<Long, CategoryEntity> categories, Set<Long> categoryIds) {
+        return categoryIds.stream().map(categories::get).collect(Collectors.toCollection(HashSet::new));
+    }
+
+    /**
+     * Un resultado por fila, en el orden de la solicitud
+     */
+    private static List<BulkProductResultDto> results(List<Map<String, String>> errors, List<Integer> savedIndexes,
+            List<ProductEntity> saved, BulkProductResultDto.Status status) {
+        BulkProductResultDto[] results = new BulkProductResultDto[errors.size()];
+        for (int i = 0; i < savedIndexes.size(); i++) {
+            int index = savedIndexes.get(i);
+            results[index] = BulkProductResultDto.succeeded(index, status, saved.get(i).getId());
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = BulkProductResultDto.failed(i, errors.get(i));
+            }
+        }
+        return List.of(results);
+    }
+
+    private void validatePageSize(int size) {
         if (size < MIN_PAGE_SIZE || size > MAX_PAGE_SIZE) {
             throw new BadRequestException(
                     "El tamaño debe estar entre " + MIN_PAGE_SIZE + " y " + MAX_PAGE_SIZE);
         }
-        Sort sortDefinition = createSort(sort);
-        return PageRequest.of(page, size, sortDefinition);
     }
 
     private Sort createSort(String[] sortParams) {
@@ -351,11 +1066,14 @@ public class ProductServiceImpl implements ProductService {
         }
     }
 
+    /**
+     * Convierte la entidad a DTO
+     * 
+     * Owner y categorías deben venir cargados por el fetch plan de la consulta
+     * (findWithRelations*); aquí no se inicializan
+     * relaciones fila por fila.
+     */
     private ProductResponseDto toResponseDto(ProductEntity entity) {
-        // Inicializar relaciones lazy
-        Hibernate.initialize(entity.getOwner());
-        Hibernate.initialize(entity.getCategories());
-
         ProductResponseDto dto = new ProductResponseDto();
 
         // Campos básicos
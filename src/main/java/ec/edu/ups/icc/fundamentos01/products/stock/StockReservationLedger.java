@@ -0,0 +1,327 @@
+package ec.edu.ups.icc.fundamentos01.products.stock;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import ec.edu.ups.icc.fundamentos01.config.ProductStockProperties;
+import ec.edu.ups.icc.fundamentos01.products.events.ProductChangedEvent;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductRepository;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Reservas de stock en memoria para productos con mucho tráfico
+ * (products.stock.ledger.enabled)
+ *
+ * En lugar de un UPDATE por reserva, la instancia toma de la BD un BLOQUE de
+ * unidades por producto (mismo UPDATE condicional, de blockSize unidades) y
+ * reserva contra ese bloque con contadores atómicos, sin locks ni consultas:
+ * - Cada producto reparte su bloque en varios contadores (stripes); cada hilo
+ *   empieza por el suyo, así los hilos no compiten por el mismo CAS
+ * - Cuando el bloque no alcanza se toma otro de la BD
+ * - release devuelve las unidades al bloque, no a la BD
+ * - flush (programado) devuelve a la BD los bloques inactivos y los excesos:
+ *   las escrituras en la BD son una por bloque, no una por reserva. Un bloque
+ *   inactivo se quita del mapa: solo hay bloques de productos con reservas
+ *   recientes
+ *
+ * Nunca se vende de más, ni entre instancias: la columna stock solo cuenta lo
+ * que ninguna instancia tomó. El costo es que, mientras hay bloques tomados,
+ * el stock que muestra la API es menor que el disponible, y que si la
+ * instancia se cae sin apagarse bien las unidades de sus bloques se pierden
+ * hasta corregir el stock (PUT). Un PUT / PATCH que fija el stock no descarta
+ * los bloques tomados: lo que devuelvan se suma al valor nuevo.
+ */
+@Component
+public class StockReservationLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationLedger.class);
+
+    private final ProductRepository productRepo;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductStockProperties.Ledger properties;
+
+    // productId → bloque tomado por esta instancia. flush quita los inactivos
+    // (ver Block.retire): lo que una operación en curso deje después en un
+    // bloque quitado lo devuelve ella misma a la BD
+    private final Map<Long, Block> blocks = new ConcurrentHashMap<>();
+
+    public StockReservationLedger(ProductRepository productRepo,
+            ApplicationEventPublisher eventPublisher,
+            ProductStockProperties properties) {
+        this.productRepo = productRepo;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties.getLedger();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Reserva unidades del bloque del producto, tomando más de la BD si hace falta
+     *
+     * @return false si el producto no existe o no hay stock suficiente
+     */
+    public boolean reserve(Long productId, int quantity) {
+        Block block = blocks.computeIfAbsent(productId, id -> new Block(properties.getStripes()));
+        block.touch();
+        boolean taken = block.take(quantity);
+        // take puede vaciar y volver a llenar los contadores
+        returnIfRetired(productId, block);
+        if (taken) {
+            return true;
+        }
+
+        // Bloque nuevo: al menos lo pedido, normalmente blockSize
+        int lease = Math.max(quantity, properties.getBlockSize());
+        if (lease > quantity && lease(productId, lease)) {
+            put(productId, block, lease - quantity);
+            return true;
+        }
+        if (lease(productId, quantity)) {
+            return true;
+        }
+
+        // Lo que quedó en el bloque más lo de la BD puede alcanzar aunque ninguno
+        // de los dos alcance solo: se devuelve el resto y se intenta en la BD
+        long leftover = block.drain();
+        if (leftover > 0) {
+            giveBack(productId, leftover);
+            return lease(productId, quantity);
+        }
+        return false;
+    }
+
+    /**
+     * Devuelve unidades al bloque del producto
+     *
+     * @return false si no hay bloque y la BD no aceptó las unidades (el
+     *         producto no existe o el stock pasaría del máximo)
+     */
+    public boolean release(Long productId, int quantity) {
+        Block block = blocks.get(productId);
+        if (block == null) {
+            // Nada tomado en esta instancia: directo a la BD, como sin ledger
+            if (!giveBack(productId, quantity)) {
+                return false;
+            }
+            eventPublisher.publishEvent(new ProductChangedEvent(productId, ProductChangedEvent.Type.STOCK));
+            return true;
+        }
+        block.touch();
+        put(productId, block, quantity);
+        return true;
+    }
+
+    /**
+     * Devuelve a la BD los bloques inactivos y lo que exceda de 2 bloques
+     * (acumulado por release)
+     */
+    @Scheduled(fixedDelayString = "#{@productStockProperties.ledger.flushInterval.toMillis()}")
+    public void flush() {
+        if (!isEnabled() || blocks.isEmpty()) {
+            return;
+        }
+        long idleBefore = System.nanoTime() - properties.getIdleTimeout().toNanos();
+        long maxHeld = 2L * properties.getBlockSize();
+
+        List<Long> flushed = new ArrayList<>();
+        blocks.forEach((productId, block) -> {
+            long amount;
+            if (block.lastUsed() < idleBefore) {
+                // Primero fuera del mapa: las reservas nuevas crean otro bloque
+                blocks.remove(productId, block);
+                block.retire();
+                amount = block.drain();
+            } else if (block.available() > maxHeld) {
+                amount = block.drain();
+                long keep = Math.min(amount, properties.getBlockSize());
+                block.put(keep);
+                amount -= keep;
+            } else {
+                return;
+            }
+            if (amount > 0) {
+                if (giveBack(productId, amount)) {
+                    flushed.add(productId);
+                } else {
+                    logger.warn("No se pudieron devolver {} unidades del producto {}", amount, productId);
+                }
+            }
+        });
+        if (!flushed.isEmpty()) {
+            logger.debug("Stock devuelto a la BD para {} productos", flushed.size());
+            eventPublisher.publishEvent(
+                    new ProductChangedEvent(flushed, ProductChangedEvent.Type.STOCK, Set.of()));
+        }
+    }
+
+    /**
+     * Al apagar la instancia se devuelven todos los bloques
+     */
+    @PreDestroy
+    public void returnAll() {
+        blocks.forEach((productId, block) -> {
+            long amount = block.drain();
+            if (amount > 0) {
+                giveBack(productId, amount);
+            }
+        });
+    }
+
+    private boolean lease(Long productId, int quantity) {
+        if (productRepo.decrementStock(productId, quantity, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(productId, ProductChangedEvent.Type.STOCK));
+        return true;
+    }
+
+    private void put(Long productId, Block block, long quantity) {
+        block.put(quantity);
+        returnIfRetired(productId, block);
+    }
+
+    /**
+     * Si flush ya quitó el bloque del mapa, nadie más va a devolver lo que se
+     * dejó en él: se devuelve aquí
+     */
+    private void returnIfRetired(Long productId, Block block) {
+        if (block.isRetired()) {
+            long late = block.drain();
+            if (late > 0 && giveBack(productId, late)) {
+                eventPublisher.publishEvent(new ProductChangedEvent(productId, ProductChangedEvent.Type.STOCK));
+            }
+        }
+    }
+
+    /**
+     * @return false si el producto no existe o el stock pasaría del máximo
+     */
+    private boolean giveBack(Long productId, long amount) {
+        if (amount > Integer.MAX_VALUE) {
+            return false;
+        }
+        return productRepo.incrementStock(productId, (int) amount, LocalDateTime.now()) > 0;
+    }
+
+    /**
+     * Bloques en memoria (para tests)
+     */
+    int blockCount() {
+        return blocks.size();
+    }
+
+    /**
+     * Unidades tomadas de un producto, repartidas en contadores atómicos
+     */
+    private static final class Block {
+
+        // Un contador cada 8 longs (64 bytes): cada uno en su línea de caché,
+        // si no los CAS de hilos distintos se invalidan entre sí igual
+        private static final int PADDING = 8;
+
+        // Precisión de lastUsed: escribirlo en cada reserva haría competir a
+        // todos los hilos por la misma línea de caché
+        private static final long TOUCH_GRANULARITY_NANOS = 100_000_000L;
+
+        private final int stripes;
+        private final AtomicLongArray counters;
+        private volatile long lastUsed = System.nanoTime();
+        private volatile boolean retired;
+
+        Block(int stripes) {
+            this.stripes = Math.max(1, stripes);
+            this.counters = new AtomicLongArray(this.stripes * PADDING);
+        }
+
+        /**
+         * Descuenta de un solo contador, empezando por el del hilo actual;
+         * si ninguno alcanza solo pero la suma sí, los junta
+         */
+        boolean take(int quantity) {
+            int start = home();
+            for (int i = 0; i < stripes; i++) {
+                int index = ((start + i) % stripes) * PADDING;
+                long current = counters.get(index);
+                while (current >= quantity) {
+                    if (counters.compareAndSet(index, current, current - quantity)) {
+                        return true;
+                    }
+                    current = counters.get(index);
+                }
+            }
+            if (available() < quantity) {
+                return false;
+            }
+            long total = drain();
+            if (total >= quantity) {
+                put(total - quantity);
+                return true;
+            }
+            put(total);
+            return false;
+        }
+
+        void put(long quantity) {
+            if (quantity > 0) {
+                counters.addAndGet(home() * PADDING, quantity);
+            }
+        }
+
+        long drain() {
+            long total = 0;
+            for (int i = 0; i < stripes; i++) {
+                total += counters.getAndSet(i * PADDING, 0);
+            }
+            return total;
+        }
+
+        long available() {
+            long total = 0;
+            for (int i = 0; i < stripes; i++) {
+                total += counters.get(i * PADDING);
+            }
+            return total;
+        }
+
+        void touch() {
+            long now = System.nanoTime();
+            if (now - lastUsed > TOUCH_GRANULARITY_NANOS) {
+                lastUsed = now;
+            }
+        }
+
+        long lastUsed() {
+            return lastUsed;
+        }
+
+        /**
+         * Marca el bloque como quitado del mapa, ANTES de vaciarlo. Quien deje
+         * unidades (put, take) y después vea retired las vacía él mismo; si no
+         * lo ve, dejó las unidades antes de este drain y flush ya las cuenta.
+         */
+        void retire() {
+            retired = true;
+        }
+
+        boolean isRetired() {
+            return retired;
+        }
+
+        private int home() {
+            return (int) (Thread.currentThread().threadId() % stripes);
+        }
+    }
+}
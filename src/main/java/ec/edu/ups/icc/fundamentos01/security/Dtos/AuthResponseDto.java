@@ -14,6 +14,9 @@ public class AuthResponseDto {
     private String email;
     private Set<String> roles;
 
+    // Token opaco para /auth/refresh (nuevo en cada login, registro y refresh)
+    private String refreshToken;
+
     // Constructores
     public AuthResponseDto() {
     }
@@ -63,6 +66,12 @@ public class AuthResponseDto {
     public void setRoles(Set<String> roles) {
         this.roles = roles;
     }
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
     
     
   
@@ -0,0 +1,28 @@
+package ec.edu.ups.icc.fundamentos01.security.Dtos;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public class RefreshTokenRequestDto {
+
+    @NotBlank(message = "El refresh token es obligatorio")
+    @Size(max = 128, message = "El refresh token no es válido")
+    private String refreshToken;
+
+    // Constructores
+    public RefreshTokenRequestDto() {
+    }
+
+    public RefreshTokenRequestDto(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    // Getters y Setters
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
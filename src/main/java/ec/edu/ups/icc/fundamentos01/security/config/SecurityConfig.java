@@ -1,8 +1,12 @@
 package ec.edu.ups.icc.fundamentos01.security.config;
 
+import ec.edu.ups.icc.fundamentos01.config.PasswordHashingProperties;
+import ec.edu.ups.icc.fundamentos01.security.crypto.PooledPasswordEncoder;
 import ec.edu.ups.icc.fundamentos01.security.filters.JwtAuthenticationEntryPoint;
 import ec.edu.ups.icc.fundamentos01.security.filters.JwtAuthenticationFilter;
 import ec.edu.ups.icc.fundamentos01.security.services.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,10 +18,14 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
@@ -35,16 +43,39 @@ public class SecurityConfig {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
     }
 
+    /**
+     * Encoder de contraseñas (password-hashing.*)
+     * 
+     * - DelegatingPasswordEncoder: los hashes nuevos llevan el prefijo del
+     *   algoritmo ({bcrypt} / {pbkdf2}); los guardados sin prefijo son BCrypt
+     * - upgradeEncoding es true para hashes de otro algoritmo, sin prefijo o
+     *   con un costo de BCrypt menor: se re-hashean al iniciar sesión
+     * - PooledPasswordEncoder: el hash corre en un pool acotado (429 si se llena)
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(properties.getBcryptStrength());
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(properties.getAlgorithm().id(), Map.of(
+                PasswordHashingProperties.Algorithm.BCRYPT.id(), bcrypt,
+                PasswordHashingProperties.Algorithm.PBKDF2.id(), Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8()));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        return new PooledPasswordEncoder(delegating,
+                properties.getPool().getThreads(),
+                properties.getPool().getQueueCapacity(),
+                meterRegistry);
     }
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder,
+            PasswordHashingProperties properties) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        if (properties.isUpgradeOnLogin()) {
+            // Guarda el hash nuevo cuando upgradeEncoding lo pide
+            authProvider.setUserDetailsPasswordService(userDetailsService);
+        }
         return authProvider;
     }
 
@@ -54,7 +85,8 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+            DaoAuthenticationProvider authenticationProvider) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .exceptionHandling(exception -> exception
@@ -62,13 +94,22 @@ public class SecurityConfig {
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Respuestas en streaming: la petición original ya se autorizó y
+                        // el dispatch ASYNC que la cierra no trae el token (STATELESS)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        // Página de error de un 403/404 ya decidido: sin esto el dispatch
+                        // ERROR (sin token) se respondería como 401
+                        .dispatcherTypeMatchers(DispatcherType.ERROR).permitAll()
                         .requestMatchers("/auth/**").permitAll()
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
                         .requestMatchers("/status/**").permitAll()
                         .requestMatchers("/api/status").permitAll()
+                        // Métricas (caches, Hikari, ejecutores, hashing): solo ADMIN
+                        .requestMatchers("/actuator/metrics/**").hasRole("ADMIN")
                         .requestMatchers("/actuator/**").permitAll()
                         .anyRequest().authenticated());
 
-        http.authenticationProvider(authenticationProvider());
+        http.authenticationProvider(authenticationProvider);
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
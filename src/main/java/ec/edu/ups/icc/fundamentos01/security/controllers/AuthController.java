@@ -2,6 +2,7 @@ package ec.edu.ups.icc.fundamentos01.security.controllers;
 
 import ec.edu.ups.icc.fundamentos01.security.Dtos.AuthResponseDto;
 import ec.edu.ups.icc.fundamentos01.security.Dtos.LoginRequestDto;
+import ec.edu.ups.icc.fundamentos01.security.Dtos.RefreshTokenRequestDto;
 import ec.edu.ups.icc.fundamentos01.security.Dtos.RegisterRequestDto;
 import ec.edu.ups.icc.fundamentos01.security.services.AuthService;
 import jakarta.validation.Valid;
@@ -28,6 +29,19 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Access token nuevo sin contraseña
+     * POST /auth/refresh { "refreshToken": "..." }
+     * 
+     * Devuelve también un refresh token nuevo: el enviado deja de servir y
+     * reenviarlo revoca la sesión completa (ver RefreshTokenService)
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponseDto> refresh(@Valid @RequestBody RefreshTokenRequestDto refreshRequest) {
+        AuthResponseDto response = authService.refresh(refreshRequest);
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/register")
     public ResponseEntity<AuthResponseDto> register(@Valid @RequestBody RegisterRequestDto registerRequest) {
         AuthResponseDto response = authService.register(registerRequest);
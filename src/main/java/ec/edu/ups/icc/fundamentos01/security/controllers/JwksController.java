@@ -0,0 +1,35 @@
+package ec.edu.ups.icc.fundamentos01.security.controllers;
+
+import ec.edu.ups.icc.fundamentos01.security.services.JwtKeyService;
+import java.util.concurrent.TimeUnit;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class JwksController {
+
+    private final JwtKeyService jwtKeyService;
+
+    public JwksController(JwtKeyService jwtKeyService) {
+        this.jwtKeyService = jwtKeyService;
+    }
+
+    /**
+     * Claves públicas para verificar los access tokens (RFC 7517)
+     * GET /.well-known/jwks.json
+     * 
+     * Público: gateways y otros servicios verifican los tokens localmente.
+     * Cacheable 5 minutos; una clave nueva se publica antes de empezar a
+     * firmar con ella (jwt.signing.keys[].active-from)
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<String> jwks() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(jwtKeyService.jwks());
+    }
+}
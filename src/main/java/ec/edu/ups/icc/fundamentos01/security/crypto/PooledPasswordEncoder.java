@@ -0,0 +1,120 @@
+package ec.edu.ups.icc.fundamentos01.security.crypto;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import ec.edu.ups.icc.fundamentos01.exception.domain.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * PooledPasswordEncoder: ejecuta el hash de contraseñas en un pool acotado
+ *
+ * BCrypt (y PBKDF2) gastan decenas de ms de CPU por hash. En el hilo de la
+ * solicitud, un pico de logins ocupa todos los núcleos y el resto de
+ * endpoints espera. Aquí encode y matches corren en un pool propio:
+ * - threads hilos de plataforma (trabajo de CPU; en hilos virtuales ocuparía
+ *   los hilos portadores igual)
+ * - Una cola de queueCapacity hashes; con la cola llena se responde 429
+ *   (TooManyRequestsException) en lugar de acumular solicitudes
+ * - El hilo de la solicitud espera el resultado (con hilos virtuales, sin
+ *   ocupar un hilo de plataforma)
+ *
+ * upgradeEncoding no calcula hashes: se delega directo.
+ *
+ * Métricas:
+ * - password.hash (timer, tag operation=encode|matches): duración del hash
+ * - password.hash.rejected (counter): solicitudes rechazadas con 429
+ * - executor.* con tag name=passwordHashing (executor.queued = hashes en cola,
+ *   executor.active, executor.completed...)
+ */
+public class PooledPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public PooledPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity,
+            MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hash-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "passwordHashing");
+        this.encodeTimer = hashTimer("encode", meterRegistry);
+        this.matchesTimer = hashTimer("matches", meterRegistry);
+        this.rejected = Counter.builder("password.hash.rejected")
+                .description("Hashes de contraseña rechazados con 429 (cola llena)")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hash(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hash(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private <T> T hash(Timer timer, Supplier<T> work) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.record(work));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException(
+                    "Demasiadas solicitudes de autenticación; intenta de nuevo en unos segundos",
+                    RETRY_AFTER_SECONDS);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hash de contraseña interrumpido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static Timer hashTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("password.hash")
+                .description("Duración del hash de contraseñas (sin la espera en cola)")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
@@ -1,8 +1,11 @@
 package ec.edu.ups.icc.fundamentos01.security.filters;
 
 import ec.edu.ups.icc.fundamentos01.config.JwtProperties;
+import ec.edu.ups.icc.fundamentos01.config.JwtProperties.PrincipalMode;
+import ec.edu.ups.icc.fundamentos01.security.services.TokenRevocationService;
 import ec.edu.ups.icc.fundamentos01.security.services.UserDetailsServiceImpl;
 import ec.edu.ups.icc.fundamentos01.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -27,13 +30,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtUtil jwtUtil;
     private final UserDetailsServiceImpl userDetailsService;
     private final JwtProperties jwtProperties;
+    private final TokenRevocationService tokenRevocationService;
 
     public JwtAuthenticationFilter(JwtUtil jwtUtil,
             UserDetailsServiceImpl userDetailsService,
-            JwtProperties jwtProperties) {
+            JwtProperties jwtProperties,
+            TokenRevocationService tokenRevocationService) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
         this.jwtProperties = jwtProperties;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -43,9 +49,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && jwtUtil.validateToken(jwt)) {
-                String email = jwtUtil.getEmailFromToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+            // Una sola verificación de firma por request (ver JwtUtil.parseVerified)
+            Claims claims = StringUtils.hasText(jwt) ? jwtUtil.getValidClaims(jwt) : null;
+
+            if (claims != null && !tokenRevocationService.isRevoked(claims)) {
+                String email = claims.get("email", String.class);
+
+                // CLAIMS: el usuario sale del token, la BD queda fuera del camino de autenticación
+                UserDetails userDetails = jwtProperties.getPrincipalMode() == PrincipalMode.CLAIMS
+                        ? jwtUtil.getUserDetailsFromClaims(claims)
+                        : userDetailsService.loadUserByUsername(email);
 
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails,
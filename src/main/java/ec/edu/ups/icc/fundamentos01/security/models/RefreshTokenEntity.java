@@ -0,0 +1,98 @@
+package ec.edu.ups.icc.fundamentos01.security.models;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * ENTIDAD: familia de refresh tokens
+ * 
+ * Una fila por login: guarda solo el hash del token VIGENTE de la familia;
+ * cada rotación lo reemplaza (RefreshTokenRepository.rotate).
+ * No extiende BaseModel: sin id autogenerado, auditoría, borrado lógico ni
+ * versión (las escrituras son UPDATE / DELETE condicionales).
+ * 
+ * Persistable: el ID lo asigna la aplicación; sin esto save() haría un SELECT
+ * (merge) antes de cada INSERT.
+ * 
+ * Tabla en BD: refresh_tokens (V6__refresh_tokens.sql)
+ */
+@Entity
+@Table(name = "refresh_tokens")
+public class RefreshTokenEntity implements Persistable<UUID> {
+
+    /**
+     * ID de la familia (viaja dentro del token opaco)
+     */
+    @Id
+    @Column(name = "family_id")
+    private UUID familyId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * SHA-256 del token vigente en Base64URL sin relleno (43 caracteres)
+     */
+    @Column(name = "token_hash", nullable = false, length = 43)
+    private String tokenHash;
+
+    /**
+     * Vencimiento de la familia completa (no se extiende al rotar)
+     */
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "rotated_at")
+    private LocalDateTime rotatedAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    public RefreshTokenEntity() {
+    }
+
+    public RefreshTokenEntity(UUID familyId, Long userId, String tokenHash, LocalDateTime expiresAt) {
+        this.familyId = familyId;
+        this.userId = userId;
+        this.tokenHash = tokenHash;
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public UUID getId() {
+        return familyId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    public UUID getFamilyId() {
+        return familyId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public LocalDateTime getRotatedAt() {
+        return rotatedAt;
+    }
+}
@@ -0,0 +1,47 @@
+package ec.edu.ups.icc.fundamentos01.security.repositories;
+
+import ec.edu.ups.icc.fundamentos01.security.models.RefreshTokenEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshTokenEntity, UUID> {
+
+    /**
+     * Rotación: reemplaza el hash solo si el token presentado es el vigente y
+     * la familia no venció. Entre dos solicitudes con el mismo token, solo una
+     * modifica la fila
+     *
+     * @return 1 si se rotó; 0 si el token no es el vigente, venció o la familia no existe
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshTokenEntity r SET r.tokenHash = :newHash, r.rotatedAt = :now " +
+            "WHERE r.familyId = :familyId AND r.tokenHash = :currentHash AND r.expiresAt > :now")
+    int rotate(@Param("familyId") UUID familyId,
+            @Param("currentHash") String currentHash,
+            @Param("newHash") String newHash,
+            @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshTokenEntity r WHERE r.familyId = :familyId")
+    int deleteFamily(@Param("familyId") UUID familyId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshTokenEntity r WHERE r.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshTokenEntity r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
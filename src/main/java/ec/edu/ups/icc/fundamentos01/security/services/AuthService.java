@@ -4,6 +4,7 @@ import ec.edu.ups.icc.fundamentos01.exception.domain.BadRequestException;
 import ec.edu.ups.icc.fundamentos01.exception.domain.ConflictException;
 import ec.edu.ups.icc.fundamentos01.security.Dtos.AuthResponseDto;
 import ec.edu.ups.icc.fundamentos01.security.Dtos.LoginRequestDto;
+import ec.edu.ups.icc.fundamentos01.security.Dtos.RefreshTokenRequestDto;
 import ec.edu.ups.icc.fundamentos01.security.Dtos.RegisterRequestDto;
 import ec.edu.ups.icc.fundamentos01.security.models.RoleEntity;
 import ec.edu.ups.icc.fundamentos01.security.models.RoleName;
@@ -12,12 +13,12 @@ import ec.edu.ups.icc.fundamentos01.users.entities.UserEntity;
 import ec.edu.ups.icc.fundamentos01.users.repositories.UserRepository;
 import ec.edu.ups.icc.fundamentos01.utils.JwtUtil;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -31,20 +32,31 @@ public class AuthService {
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final RefreshTokenService refreshTokenService;
 
     public AuthService(AuthenticationManager authenticationManager,
             UserRepository userRepository,
             RoleRepository roleRepository,
             PasswordEncoder passwordEncoder,
-            JwtUtil jwtUtil) {
+            JwtUtil jwtUtil,
+            RefreshTokenService refreshTokenService) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.refreshTokenService = refreshTokenService;
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Sin @Transactional a propósito: el hash de la contraseña espera su turno
+     * en el pool de PooledPasswordEncoder y no debe retener una conexión de la
+     * BD mientras tanto. La carga del usuario (roles EAGER) y el re-hash
+     * (UserRepository.updatePasswordByEmail) tienen sus propias transacciones,
+     * y cada una devuelve su conexión al terminar porque open-in-view está
+     * deshabilitado (application.yml); con open-in-view la conexión de la carga
+     * quedaría tomada hasta el final de la solicitud, hash incluido.
+     */
     public AuthResponseDto login(LoginRequestDto loginRequest) {
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
@@ -61,16 +73,55 @@ public class AuthService {
                 .map(item -> item.getAuthority())
                 .collect(Collectors.toSet());
 
-        return new AuthResponseDto(
+        AuthResponseDto response = new AuthResponseDto(
                 jwt,
                 userDetails.getId(),
                 userDetails.getName(),
                 userDetails.getEmail(),
                 roles);
+        response.setRefreshToken(refreshTokenService.issue(userDetails.getId()));
+        return response;
     }
 
-    @Transactional
+    /**
+     * Access token nuevo a partir de un refresh token (rotación)
+     * 
+     * No verifica la contraseña: el costo es el UPDATE de la rotación y la
+     * lectura del usuario (nombre, email y roles actuales para el token).
+     * 
+     * @throws BadCredentialsException (401) si el refresh token no es válido,
+     *         venció o se reutilizó
+     */
+    public AuthResponseDto refresh(RefreshTokenRequestDto refreshRequest) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshRequest.getRefreshToken());
+
+        UserEntity user = userRepository.findById(rotation.userId())
+                .orElseThrow(() -> new BadCredentialsException("Usuario no encontrado"));
+        UserDetailsImpl userDetails = UserDetailsImpl.build(user);
+        String jwt = jwtUtil.generateTokenFromUserDetails(userDetails);
+
+        Set<String> roles = userDetails.getAuthorities().stream()
+                .map(item -> item.getAuthority())
+                .collect(Collectors.toSet());
+
+        AuthResponseDto response = new AuthResponseDto(
+                jwt,
+                user.getId(),
+                user.getName(),
+                user.getEmail(),
+                roles);
+        response.setRefreshToken(rotation.refreshToken());
+        return response;
+    }
+
+    /**
+     * Sin @Transactional por lo mismo que login: el hash se calcula antes de
+     * tocar la BD, y cada consulta después usa su propia transacción. Dos
+     * registros simultáneos con el mismo email los resuelve el índice único.
+     */
     public AuthResponseDto register(RegisterRequestDto registerRequest) {
+        String encodedPassword = passwordEncoder.encode(registerRequest.getPassword());
+
         if (userRepository.existsByEmail(registerRequest.getEmail())) {
             throw new ConflictException("El email ya está registrado");
         }
@@ -78,7 +129,7 @@ public class AuthService {
         UserEntity user = new UserEntity();
         user.setName(registerRequest.getName());
         user.setEmail(registerRequest.getEmail());
-        user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
+        user.setPassword(encodedPassword);
 
         RoleEntity userRole = roleRepository.findByName(RoleName.ROLE_USER)
                 .orElseThrow(() -> new BadRequestException("Rol por defecto no encontrado"));
@@ -96,11 +147,13 @@ public class AuthService {
                 .map(role -> role.getName().name())
                 .collect(Collectors.toSet());
 
-        return new AuthResponseDto(
+        AuthResponseDto response = new AuthResponseDto(
                 jwt,
                 user.getId(),
                 user.getName(),
                 user.getEmail(),
                 roleNames);
+        response.setRefreshToken(refreshTokenService.issue(user.getId()));
+        return response;
     }
 }
@@ -0,0 +1,342 @@
+package ec.edu.ups.icc.fundamentos01.security.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import javax.crypto.SecretKey;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import ec.edu.ups.icc.fundamentos01.config.JwtProperties;
+import ec.edu.ups.icc.fundamentos01.config.JwtProperties.SigningAlgorithm;
+import ec.edu.ups.icc.fundamentos01.core.cache.CacheLoads;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+
+/**
+ * JwtKeyService: claves de firma y verificación de los access tokens
+ *
+ * jwt.signing.algorithm=HS256 (por defecto) mantiene el esquema anterior: un
+ * solo secreto (jwt.secret) firma y verifica, sin "kid".
+ *
+ * Con ED25519 o ES256 la firma es asimétrica:
+ * - Solo esta instancia (o las que tengan la clave privada) firma; cualquier
+ *   nodo verifica localmente con la clave pública, sin llamar a la API
+ * - Cada token lleva en el header el "kid" de la clave que lo firmó
+ * - Varias claves a la vez: firma la más reciente ya activa (activeFrom) y
+ *   verifican todas las no vencidas (expiresAt), así la rotación no invalida
+ *   los tokens emitidos con la clave anterior
+ * - Las claves públicas se publican en /.well-known/jwks.json (JwksController)
+ * - jwt.signing.jwks-uri: nodos sin claves propias verifican con el JWKS de
+ *   otra instancia, descargado una vez y guardado jwks-cache-ttl; un kid
+ *   desconocido (clave recién rotada) fuerza una descarga nueva, como máximo
+ *   una vez cada jwks-min-refresh-interval
+ *
+ * Las claves se decodifican una sola vez al iniciar; verificar un token no
+ * vuelve a parsear ninguna clave.
+ */
+@Service
+public class JwtKeyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyService.class);
+
+    private static final String REMOTE_JWKS = "jwks";
+
+    private final SigningAlgorithm algorithm;
+    private final SecretKey hmacKey;
+
+    /**
+     * Claves locales, de la más reciente (activeFrom) a la más antigua
+     */
+    private final List<SigningKeyPair> keys;
+    private final Map<String, SigningKeyPair> keysById;
+
+    private final String jwksUri;
+    private final RestClient restClient;
+    private final long jwksMinRefreshIntervalMillis;
+    private final AsyncCache<String, Map<String, PublicKey>> remoteJwks;
+    private volatile long lastJwksFetch;
+
+    /**
+     * Clave local ya decodificada
+     *
+     * @param privateKey null si la clave solo verifica
+     * @param activeFrom null: firma desde que se carga
+     * @param expiresAt  null: no vence
+     */
+    private record SigningKeyPair(String kid, PrivateKey privateKey, PublicKey publicKey,
+            PublicJwk<?> jwk, Instant activeFrom, Instant expiresAt) {
+
+        boolean canSignAt(Instant now) {
+            return privateKey != null
+                    && (activeFrom == null || !activeFrom.isAfter(now))
+                    && isValidAt(now);
+        }
+
+        boolean isValidAt(Instant now) {
+            return expiresAt == null || expiresAt.isAfter(now);
+        }
+    }
+
+    public JwtKeyService(JwtProperties jwtProperties) {
+        JwtProperties.Signing signing = jwtProperties.getSigning();
+        this.algorithm = signing.getAlgorithm();
+        this.hmacKey = algorithm == SigningAlgorithm.HS256
+                ? Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes())
+                : null;
+
+        this.jwksUri = StringUtils.hasText(signing.getJwksUri()) ? signing.getJwksUri() : null;
+        this.keys = algorithm == SigningAlgorithm.HS256 ? List.of() : loadKeys(signing);
+        this.keysById = keys.stream()
+                .collect(Collectors.toUnmodifiableMap(SigningKeyPair::kid, key -> key));
+
+        this.restClient = jwksUri == null ? null : jwksClient(signing);
+        this.jwksMinRefreshIntervalMillis = signing.getJwksMinRefreshInterval().toMillis();
+        this.remoteJwks = Caffeine.newBuilder()
+                .expireAfterWrite(signing.getJwksCacheTtl())
+                .buildAsync();
+    }
+
+    /**
+     * Cliente HTTP del JWKS remoto, con límites de conexión y lectura: un host
+     * que no responde termina en RestClientException (se registra y el token
+     * no se verifica) en lugar de retener el request y a los que esperan la
+     * misma descarga
+     */
+    private static RestClient jwksClient(JwtProperties.Signing signing) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(signing.getJwksConnectTimeout());
+        requestFactory.setReadTimeout(signing.getJwksReadTimeout());
+        return RestClient.builder().requestFactory(requestFactory).build();
+    }
+
+    /**
+     * Firma el token con la clave vigente (agrega el "kid" si es asimétrica)
+     *
+     * @throws IllegalStateException si ninguna clave local puede firmar ahora
+     */
+    public JwtBuilder sign(JwtBuilder builder) {
+        if (algorithm == SigningAlgorithm.HS256) {
+            return builder.signWith(hmacKey, Jwts.SIG.HS256);
+        }
+
+        Instant now = Instant.now();
+        SigningKeyPair key = keys.stream()
+                .filter(candidate -> candidate.canSignAt(now))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException(
+                        "No hay una clave de firma JWT activa (jwt.signing.keys)"));
+
+        return builder.header().keyId(key.kid()).and()
+                .signWith(key.privateKey(), signatureAlgorithm());
+    }
+
+    /**
+     * Localiza la clave que verifica un token a partir de su header
+     * (Jwts.parser().keyLocator): alg debe ser el configurado y, si es
+     * asimétrico, el kid una clave local o del JWKS remoto
+     */
+    public LocatorAdapter<Key> keyLocator() {
+        return new LocatorAdapter<>() {
+            @Override
+            protected Key locate(JwsHeader header) {
+                if (!algorithmId().equals(header.getAlgorithm())) {
+                    throw new UnsupportedJwtException("Algoritmo JWT no permitido: " + header.getAlgorithm());
+                }
+                if (algorithm == SigningAlgorithm.HS256) {
+                    return hmacKey;
+                }
+
+                String kid = header.getKeyId();
+                if (kid == null) {
+                    throw new MalformedJwtException("El token no indica su clave (kid)");
+                }
+                PublicKey key = verificationKey(kid);
+                if (key == null) {
+                    throw new UnsupportedJwtException("Clave JWT desconocida o vencida: " + kid);
+                }
+                return key;
+            }
+        };
+    }
+
+    /**
+     * Claves públicas vigentes en formato JWK Set
+     * ({"keys":[...]}; vacío con HS256, cuyo secreto no se publica)
+     */
+    public String jwks() {
+        Instant now = Instant.now();
+        return keys.stream()
+                .filter(key -> key.isValidAt(now))
+                .map(key -> Jwks.json(key.jwk()))
+                .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+    }
+
+    // ============== VERIFICACIÓN ==============
+
+    private PublicKey verificationKey(String kid) {
+        SigningKeyPair local = keysById.get(kid);
+        if (local != null) {
+            return local.isValidAt(Instant.now()) ? local.publicKey() : null;
+        }
+        if (jwksUri == null) {
+            return null;
+        }
+
+        PublicKey remote = remoteKeys().get(kid);
+        if (remote == null && System.currentTimeMillis() - lastJwksFetch >= jwksMinRefreshIntervalMillis) {
+            // kid nuevo (el emisor rotó su clave): se vuelve a descargar el JWKS
+            remoteJwks.synchronous().invalidate(REMOTE_JWKS);
+            remote = remoteKeys().get(kid);
+        }
+        return remote;
+    }
+
+    private Map<String, PublicKey> remoteKeys() {
+        try {
+            return CacheLoads.getOrLoad(remoteJwks, REMOTE_JWKS, uri -> fetchJwks());
+        } catch (RestClientException | JwtException | IllegalArgumentException e) {
+            // Se guarda vacío: sin esto cada request volvería a intentar la
+            // descarga; un kid desconocido reintenta tras jwks-min-refresh-interval
+            logger.warn("No se pudo descargar el JWKS de {}: {}", jwksUri, e.getMessage());
+            remoteJwks.put(REMOTE_JWKS, CompletableFuture.completedFuture(Map.of()));
+            return Map.of();
+        }
+    }
+
+    private Map<String, PublicKey> fetchJwks() {
+        lastJwksFetch = System.currentTimeMillis();
+        String json = restClient.get().uri(jwksUri).retrieve().body(String.class);
+        JwkSet jwkSet = Jwks.setParser().build().parse(json);
+
+        Map<String, PublicKey> remote = new HashMap<>();
+        for (Jwk<?> jwk : jwkSet.getKeys()) {
+            if (jwk.getId() != null && jwk.toKey() instanceof PublicKey publicKey) {
+                remote.put(jwk.getId(), publicKey);
+            }
+        }
+        logger.debug("JWKS descargado de {}: {} claves", jwksUri, remote.size());
+        return remote;
+    }
+
+    // ============== CARGA DE CLAVES ==============
+
+    private List<SigningKeyPair> loadKeys(JwtProperties.Signing signing) {
+        List<SigningKeyPair> loaded = new ArrayList<>();
+        for (JwtProperties.SigningKey configured : signing.getKeys()) {
+            PublicKey publicKey = decodePublicKey(configured.getPublicKey());
+            PrivateKey privateKey = StringUtils.hasText(configured.getPrivateKey())
+                    ? decodePrivateKey(configured.getPrivateKey())
+                    : null;
+            loaded.add(keyPair(configured.getKid(), privateKey, publicKey,
+                    configured.getActiveFrom(), configured.getExpiresAt()));
+        }
+
+        if (loaded.isEmpty() && jwksUri == null) {
+            // Sin claves configuradas: un par efímero basta para una sola
+            // instancia, pero los tokens dejan de valer al reiniciar
+            // (Jwts.SIG.EdDSA.keyPair() genera Ed448: la curva se pide explícita)
+            KeyPair generated = algorithm == SigningAlgorithm.ED25519
+                    ? Jwks.CRV.Ed25519.keyPair().build()
+                    : Jwts.SIG.ES256.keyPair().build();
+            loaded.add(keyPair(null, generated.getPrivate(), generated.getPublic(), null, null));
+            logger.warn("jwt.signing.keys vacío: se generó un par {} efímero (kid {}); "
+                    + "los tokens emitidos no sobreviven a un reinicio", algorithm, loaded.get(0).kid());
+        }
+
+        loaded.sort(Comparator.comparing(SigningKeyPair::activeFrom,
+                Comparator.nullsFirst(Comparator.<Instant>naturalOrder())).reversed());
+        return List.copyOf(loaded);
+    }
+
+    private SigningKeyPair keyPair(String kid, PrivateKey privateKey, PublicKey publicKey,
+            Instant activeFrom, Instant expiresAt) {
+        var builder = Jwks.builder().key(publicKey)
+                .algorithm(algorithmId())
+                .publicKeyUse("sig");
+        PublicJwk<?> jwk = (StringUtils.hasText(kid) ? builder.id(kid) : builder.idFromThumbprint()).build();
+        return new SigningKeyPair(jwk.getId(), privateKey, publicKey, jwk, activeFrom, expiresAt);
+    }
+
+    private PublicKey decodePublicKey(String encoded) {
+        try {
+            return keyFactory().generatePublic(new X509EncodedKeySpec(decodePem(encoded)));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Clave pública JWT inválida para " + algorithm, e);
+        }
+    }
+
+    private PrivateKey decodePrivateKey(String encoded) {
+        try {
+            return keyFactory().generatePrivate(new PKCS8EncodedKeySpec(decodePem(encoded)));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Clave privada JWT inválida para " + algorithm, e);
+        }
+    }
+
+    private KeyFactory keyFactory() throws GeneralSecurityException {
+        return KeyFactory.getInstance(algorithm == SigningAlgorithm.ED25519 ? "Ed25519" : "EC");
+    }
+
+    /**
+     * Acepta PEM (con líneas -----BEGIN/END-----) o Base64 plano
+     */
+    private static byte[] decodePem(String encoded) {
+        if (encoded == null || encoded.isBlank()) {
+            throw new IllegalArgumentException("Clave vacía");
+        }
+        String base64 = encoded.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private SignatureAlgorithm signatureAlgorithm() {
+        return algorithm == SigningAlgorithm.ED25519 ? Jwts.SIG.EdDSA : Jwts.SIG.ES256;
+    }
+
+    /**
+     * Valor del header "alg" que producen las firmas de este servicio
+     */
+    private String algorithmId() {
+        return switch (algorithm) {
+            case HS256 -> Jwts.SIG.HS256.getId();
+            case ED25519 -> Jwts.SIG.EdDSA.getId();
+            case ES256 -> Jwts.SIG.ES256.getId();
+        };
+    }
+}
@@ -0,0 +1,225 @@
+package ec.edu.ups.icc.fundamentos01.security.services;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import ec.edu.ups.icc.fundamentos01.config.JwtProperties;
+import ec.edu.ups.icc.fundamentos01.security.models.RefreshTokenEntity;
+import ec.edu.ups.icc.fundamentos01.security.repositories.RefreshTokenRepository;
+import ec.edu.ups.icc.fundamentos01.users.events.UserChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * RefreshTokenService: refresh tokens opacos con rotación
+ *
+ * Con un refresh token el cliente obtiene un access token nuevo sin volver a
+ * enviar la contraseña (sin BCrypt, ver AuthService.refresh).
+ *
+ * - El token son 48 bytes aleatorios en Base64URL: el ID de la familia (16) y
+ *   un secreto (32). En la BD solo se guarda el SHA-256 del token vigente
+ * - Familia: la cadena de tokens que sale de un login; una fila en
+ *   refresh_tokens, con vencimiento absoluto (jwt.refresh-expiration)
+ * - Rotación: cada uso entrega un token nuevo y el anterior deja de servir
+ *   (UPDATE condicional: de dos usos simultáneos solo uno gana)
+ * - Reutilización: un token de la familia que no es el vigente (robado y ya
+ *   usado por otro) borra la familia completa; el dueño vuelve a iniciar sesión
+ * - Cambio de contraseña o eliminación del usuario: se borran sus familias
+ *
+ * Índice en memoria familyId → (usuario, vencimiento): evita leer la familia
+ * de la BD en cada refresh (queda solo el UPDATE de la rotación). No guarda el
+ * hash vigente: cuál es el token vigente lo decide siempre el UPDATE en la BD,
+ * así que una familia rotada o borrada por otra instancia se resuelve bien. Métricas "cache.*"
+ * con tag cache=refreshTokens.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int SECRET_BYTES = 32;
+    private static final int TOKEN_BYTES = 16 + SECRET_BYTES;
+
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+
+    private final RefreshTokenRepository refreshTokenRepo;
+    private final Duration lifetime;
+    private final SecureRandom random = new SecureRandom();
+
+    private final Cache<UUID, Family> index;
+
+    /**
+     * Familia conocida por esta instancia
+     */
+    private record Family(Long userId, LocalDateTime expiresAt) {
+
+        static Family of(RefreshTokenEntity entity) {
+            return new Family(entity.getUserId(), entity.getExpiresAt());
+        }
+    }
+
+    /**
+     * Resultado de una rotación: usuario dueño de la familia y token nuevo
+     */
+    public record Rotation(Long userId, String refreshToken) {
+    }
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepo,
+            JwtProperties jwtProperties,
+            MeterRegistry meterRegistry) {
+        this.refreshTokenRepo = refreshTokenRepo;
+        this.lifetime = Duration.ofMillis(jwtProperties.getRefreshExpiration());
+        this.index = Caffeine.newBuilder()
+                .maximumSize(jwtProperties.getRefreshIndexSize())
+                .expireAfterWrite(lifetime)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, index, "refreshTokens");
+    }
+
+    /**
+     * Abre una familia nueva (login o registro)
+     *
+     * @return refresh token para el cliente
+     */
+    public String issue(Long userId) {
+        UUID familyId = UUID.randomUUID();
+        String token = newToken(familyId);
+        String tokenHash = digest(token);
+        LocalDateTime expiresAt = LocalDateTime.now().plus(lifetime);
+
+        refreshTokenRepo.save(new RefreshTokenEntity(familyId, userId, tokenHash, expiresAt));
+        index.put(familyId, new Family(userId, expiresAt));
+        return token;
+    }
+
+    /**
+     * Cambia el token presentado por uno nuevo de la misma familia
+     *
+     * @throws BadCredentialsException (401) si el token no es válido, venció o
+     *         ya se había usado (en ese caso también se revoca la familia)
+     */
+    public Rotation rotate(String token) {
+        UUID familyId = familyId(token);
+        LocalDateTime now = LocalDateTime.now();
+
+        Family family = index.getIfPresent(familyId);
+        if (family == null) {
+            family = refreshTokenRepo.findById(familyId)
+                    .map(Family::of)
+                    .orElseThrow(RefreshTokenService::invalid);
+        }
+        if (!family.expiresAt().isAfter(now)) {
+            index.invalidate(familyId);
+            throw invalid();
+        }
+
+        String next = newToken(familyId);
+        if (refreshTokenRepo.rotate(familyId, digest(token), digest(next), now) == 1) {
+            index.put(familyId, family);
+            return new Rotation(family.userId(), next);
+        }
+
+        // No es el token vigente: reutilización de uno ya rotado (o la familia
+        // se revocó / venció en otra instancia)
+        index.invalidate(familyId);
+        if (refreshTokenRepo.deleteFamily(familyId) > 0) {
+            logger.warn("Refresh token reutilizado: se revocó la familia {} del usuario {}",
+                    familyId, family.userId());
+        }
+        throw invalid();
+    }
+
+    /**
+     * Revoca todas las familias del usuario
+     */
+    public void revokeAll(Long userId) {
+        refreshTokenRepo.deleteByUserId(userId);
+        index.asMap().values().removeIf(family -> family.userId().equals(userId));
+    }
+
+    /**
+     * Contraseña nueva o usuario eliminado: las sesiones abiertas con la
+     * contraseña anterior no pueden seguir renovándose
+     *
+     * REQUIRES_NEW: después del commit la transacción del evento ya terminó
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.isPasswordChanged() || event.isDeleted()) {
+            revokeAll(event.getUserId());
+        }
+    }
+
+    /**
+     * Borra las familias vencidas
+     */
+    @Scheduled(fixedDelay = 1, initialDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void purgeExpired() {
+        int deleted = refreshTokenRepo.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.debug("Familias de refresh tokens vencidas eliminadas: {}", deleted);
+        }
+    }
+
+    private String newToken(UUID familyId) {
+        byte[] secret = new byte[SECRET_BYTES];
+        random.nextBytes(secret);
+        return BASE64.encodeToString(ByteBuffer.allocate(TOKEN_BYTES)
+                .putLong(familyId.getMostSignificantBits())
+                .putLong(familyId.getLeastSignificantBits())
+                .put(secret)
+                .array());
+    }
+
+    private static UUID familyId(String token) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw invalid();
+        }
+        if (bytes.length != TOKEN_BYTES) {
+            throw invalid();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * SHA-256 del token en Base64URL sin relleno (43 caracteres)
+     */
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return BASE64.encodeToString(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static BadCredentialsException invalid() {
+        return new BadCredentialsException("Refresh token inválido o vencido");
+    }
+}
@@ -0,0 +1,93 @@
+package ec.edu.ups.icc.fundamentos01.security.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import ec.edu.ups.icc.fundamentos01.config.JwtProperties;
+import ec.edu.ups.icc.fundamentos01.users.events.UserChangedEvent;
+import io.jsonwebtoken.Claims;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * TokenRevocationService: Invalida tokens emitidos antes de un cambio del usuario
+ *
+ * Cuando el usuario se reconstruye desde los claims (jwt.principal-mode=claims),
+ * un token seguiría siendo válido hasta su "exp" aunque el usuario cambie de
+ * email, de roles o sea eliminado. Este servicio guarda, por usuario, el
+ * instante a partir del cual se aceptan tokens:
+ *
+ * - userId → epoch en segundos (el "iat" del JWT tiene precisión de segundos)
+ * - Un token con iat anterior a ese instante se considera revocado
+ * - La entrada solo se necesita mientras exista algún token anterior vivo,
+ *   por eso expira tras jwt.expiration
+ *
+ * Solo aplica con principal-mode=claims: con database cada request carga el
+ * usuario actual, y un cambio (ej: el nombre) no debe cerrar sus sesiones.
+ *
+ * Nota: La estructura vive en memoria de cada instancia. Con varias instancias
+ * cada nodo solo conoce las revocaciones que procesó.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final long MAX_TRACKED_USERS = 100_000;
+
+    private final JwtProperties jwtProperties;
+    private final Cache<Long, Long> notBeforeByUser;
+
+    public TokenRevocationService(JwtProperties jwtProperties) {
+        this.jwtProperties = jwtProperties;
+        this.notBeforeByUser = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_USERS)
+                .expireAfterWrite(Duration.ofMillis(jwtProperties.getExpiration()))
+                .build();
+    }
+
+    /**
+     * Revoca todos los tokens del usuario emitidos hasta este momento
+     *
+     * @param userId ID del usuario (claim "sub")
+     */
+    public void revokeIssuedBeforeNow(Long userId) {
+        notBeforeByUser.put(userId, Instant.now().getEpochSecond());
+    }
+
+    /**
+     * Los tokens emitidos antes del cambio traen email/nombre/roles desactualizados
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (enabled()) {
+            revokeIssuedBeforeNow(event.getUserId());
+        }
+    }
+
+    /**
+     * Verifica si el token fue revocado
+     *
+     * @param claims Claims ya verificados del token
+     * @return true si el token fue emitido antes de la última revocación del usuario
+     */
+    public boolean isRevoked(Claims claims) {
+        if (!enabled()) {
+            return false;
+        }
+
+        Long notBefore = notBeforeByUser.getIfPresent(Long.parseLong(claims.getSubject()));
+        if (notBefore == null) {
+            return false;
+        }
+
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt == null || issuedAt.toInstant().getEpochSecond() < notBefore;
+    }
+
+    private boolean enabled() {
+        return jwtProperties.isRevocationCheck()
+                && jwtProperties.getPrincipalMode() == JwtProperties.PrincipalMode.CLAIMS;
+    }
+}
@@ -1,18 +1,41 @@
 package ec.edu.ups.icc.fundamentos01.security.services;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import ec.edu.ups.icc.fundamentos01.config.UserDetailsCacheProperties;
+import ec.edu.ups.icc.fundamentos01.core.cache.CacheLoads;
 import ec.edu.ups.icc.fundamentos01.users.entities.UserEntity;
+import ec.edu.ups.icc.fundamentos01.users.events.UserChangedEvent;
 import ec.edu.ups.icc.fundamentos01.users.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 /**
  * UserDetailsServiceImpl: Carga usuarios desde la base de datos
+ * 
+ * Delante de la consulta hay un cache acotado (tamaño + TTL) de
+ * UserDetailsImpl por email, para que cada request autenticado no repita
+ * la misma consulta de usuario + roles. Las entradas se invalidan con
+ * UserChangedEvent y las estadísticas se publican como métricas
+ * "cache.gets", "cache.evictions", etc. con tag cache=userDetails.
+ * 
+ * También guarda el hash nuevo cuando DaoAuthenticationProvider re-hashea
+ * la contraseña al iniciar sesión (UserDetailsPasswordService, ver
+ * password-hashing.upgrade-on-login).
  */
 @Service // Componente de Spring (se inyecta automáticamente)
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
 
     /**
      * Repositorio para acceder a la base de datos
@@ -21,13 +44,33 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      */
     private final UserRepository userRepository;
 
+    /**
+     * Cache email → UserDetailsImpl (null si está deshabilitado)
+     */
+    private final AsyncCache<String, UserDetailsImpl> cache;
+
     /**
      * Constructor: Spring inyecta UserRepository automáticamente
      * 
      * @param userRepository: Repositorio de usuarios
+     * @param cacheProperties: Tamaño y TTL del cache (user-details-cache.*)
+     * @param meterRegistry: Registro de métricas de Micrometer
      */
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository,
+            UserDetailsCacheProperties cacheProperties,
+            MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
+
+        if (cacheProperties.isEnabled()) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(cacheProperties.getMaxSize())
+                    .expireAfterWrite(cacheProperties.getTtl())
+                    .recordStats()
+                    .buildAsync();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "userDetails");
+        } else {
+            this.cache = null;
+        }
     }
 
     /**
@@ -39,16 +82,71 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      * @return UserDetails: Usuario convertido a formato Spring Security
      * @throws UsernameNotFoundException: Si el usuario no existe
      * 
-     * @Transactional(readOnly = true):
-     *                         - readOnly = true: Optimización para consultas SELECT
-     *                         - Permite a Hibernate/PostgreSQL optimizar la query
-     *                         - NO permite operaciones de escritura (INSERT,
-     *                         UPDATE, DELETE)
-     *                         - Si intentamos modificar, lanza excepción
+     * Sin @Transactional a propósito:
+     * - Un acierto del cache no abre transacción ni toma una conexión del pool
+     * - En un fallo, findByEmail corre en la transacción de solo lectura del
+     *   repositorio (Spring Data) y los roles llegan cargados por FetchType.EAGER
      */
     @Override
-    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        if (cache == null) {
+            return loadFromDatabase(email);
+        }
+
+        // Si no está en cache se consulta la BD una sola vez por email,
+        // fuera del lock del cache (ver CacheLoads)
+        return CacheLoads.getOrLoad(cache, email, this::loadFromDatabase);
+    }
+
+    /**
+     * Invalida el usuario del cache cuando cambian sus datos o se elimina
+     * 
+     * Se ejecuta después del commit para no volver a cachear datos viejos
+     * (o inmediatamente si no hay transacción activa).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (cache == null) {
+            return;
+        }
+        if (event.getPreviousEmail() != null) {
+            cache.synchronous().invalidate(event.getPreviousEmail());
+        }
+        if (event.getCurrentEmail() != null) {
+            cache.synchronous().invalidate(event.getCurrentEmail());
+        }
+    }
+
+    /**
+     * updatePassword: guarda el hash re-generado en el login
+     * 
+     * DaoAuthenticationProvider lo llama después de validar la contraseña si
+     * PasswordEncoder.upgradeEncoding indica que el hash guardado usa otro
+     * algoritmo o un costo menor. No publica UserChangedEvent: los tokens
+     * emitidos siguen siendo válidos (email, nombre y roles no cambian).
+     * 
+     * Si no se puede guardar, el login sigue igual y se reintenta en el próximo.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        try {
+            if (userRepository.updatePasswordByEmail(user.getUsername(), newPassword) == 0) {
+                return user;
+            }
+        } catch (DataAccessException e) {
+            logger.warn("No se pudo actualizar el hash de la contraseña de {}", user.getUsername(), e);
+            return user;
+        }
+
+        if (cache != null) {
+            cache.synchronous().invalidate(user.getUsername());
+        }
+        UserDetailsImpl details = (UserDetailsImpl) user;
+        return new UserDetailsImpl(details.getId(), details.getName(), details.getEmail(), newPassword,
+                details.getAuthorities());
+    }
+
+    private UserDetailsImpl loadFromDatabase(String email) {
         /**
          * 1. Buscar usuario por email en la base de datos
          * 
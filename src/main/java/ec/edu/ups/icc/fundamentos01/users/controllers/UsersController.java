@@ -1,7 +1,10 @@
 package ec.edu.ups.icc.fundamentos01.users.controllers;
 
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -12,6 +15,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import ec.edu.ups.icc.fundamentos01.core.web.JsonStreamResponses;
 import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
 import ec.edu.ups.icc.fundamentos01.users.dtos.CreateUserDto;
 import ec.edu.ups.icc.fundamentos01.users.dtos.PartialUpdateUserDto;
@@ -20,6 +24,7 @@ import ec.edu.ups.icc.fundamentos01.users.dtos.UserResponseDto;
 import ec.edu.ups.icc.fundamentos01.users.services.UserService;
 import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 @RestController
@@ -27,9 +32,11 @@ import org.springframework.web.bind.annotation.RequestParam;
 public class UsersController {
 
     private final UserService service;
+    private final JsonStreamResponses jsonStreams;
 
-    public UsersController(UserService service) {
+    public UsersController(UserService service, JsonStreamResponses jsonStreams) {
         this.service = service;
+        this.jsonStreams = jsonStreams;
     }
 
     @GetMapping
@@ -68,6 +75,13 @@ public class UsersController {
         return service.getProductsByUserId(id);
     }
 
+    /**
+     * Productos del usuario que cumplen los filtros (nombre como subcadena)
+     * GET /api/users/{id}/products-v2?name=laptop&minPrice=100
+     * 
+     * Los filtros se aplican en la BD; para usuarios con muchos productos usar
+     * /paginated o /stream, que devuelven los mismos productos
+     */
     @GetMapping("/{id}/products-v2")
     public List<ProductResponseDto> findProductsByUserIdWithFilters(
             @PathVariable("id") Long id,
@@ -77,11 +91,42 @@ public class UsersController {
             @RequestParam(required = false) Long categoryId) {
         return service.getProductsByUserIdWithFilters(id, name, minPrice, maxPrice, categoryId);
     }
-    
-
-
-
 
+    /**
+     * Mismos filtros que /products-v2, con paginación en la BD
+     * GET /api/users/{id}/products-v2/paginated?name=laptop&page=0&size=10&sort=price,desc
+     */
+    @GetMapping("/{id}/products-v2/paginated")
+    public Page<ProductResponseDto> findProductsByUserIdWithFiltersPaginated(
+            @PathVariable("id") Long id,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "sort", defaultValue = "id") String[] sort) {
+        return service.getProductsByUserIdWithFilters(id, name, minPrice, maxPrice, categoryId, page, size, sort);
+    }
 
+    /**
+     * Todos los productos del usuario que cumplen los filtros, como NDJSON
+     * GET /api/users/{id}/products-v2/stream?categoryId=3
+     * 
+     * Un producto JSON por línea, escrito a medida que se leen los lotes de la BD:
+     * la memoria no crece con la cantidad de productos del usuario
+     */
+    @GetMapping(value = "/{id}/products-v2/stream", produces = JsonStreamResponses.NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamProductsByUserIdWithFilters(
+            @PathVariable("id") Long id,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Long categoryId) {
 
+        // Usuario y filtros se validan aquí: los errores aún pueden responder 404/400
+        Stream<ProductResponseDto> products = service.streamProductsByUserIdWithFilters(
+                id, name, minPrice, maxPrice, categoryId);
+        return jsonStreams.ndjson(products);
+    }
 }
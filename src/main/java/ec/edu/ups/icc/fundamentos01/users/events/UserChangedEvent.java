@@ -0,0 +1,58 @@
+package ec.edu.ups.icc.fundamentos01.users.events;
+
+/**
+ * Evento publicado cuando cambian los datos de autenticación de un usuario
+ * (nombre, email, contraseña, roles) o cuando el usuario se elimina.
+ *
+ * Lo escuchan los componentes que guardan copias del usuario en memoria:
+ * - UserDetailsServiceImpl: cache de UserDetails por email
+ * - TokenRevocationService: revoca tokens emitidos antes del cambio
+ * - RefreshTokenService: revoca los refresh tokens si cambió la contraseña o
+ *   el usuario se eliminó
+ */
+public class UserChangedEvent {
+
+    private final Long userId;
+    private final String previousEmail;
+    private final String currentEmail;
+    private final boolean passwordChanged;
+
+    /**
+     * @param userId        ID del usuario modificado
+     * @param previousEmail Email antes del cambio
+     * @param currentEmail  Email después del cambio (null si se eliminó)
+     */
+    public UserChangedEvent(Long userId, String previousEmail, String currentEmail) {
+        this(userId, previousEmail, currentEmail, false);
+    }
+
+    /**
+     * @param passwordChanged true si el cambio incluye una contraseña nueva
+     */
+    public UserChangedEvent(Long userId, String previousEmail, String currentEmail, boolean passwordChanged) {
+        this.userId = userId;
+        this.previousEmail = previousEmail;
+        this.currentEmail = currentEmail;
+        this.passwordChanged = passwordChanged;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getPreviousEmail() {
+        return previousEmail;
+    }
+
+    public String getCurrentEmail() {
+        return currentEmail;
+    }
+
+    public boolean isPasswordChanged() {
+        return passwordChanged;
+    }
+
+    public boolean isDeleted() {
+        return currentEmail == null;
+    }
+}
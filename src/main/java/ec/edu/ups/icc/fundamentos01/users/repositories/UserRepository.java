@@ -2,7 +2,11 @@ package ec.edu.ups.icc.fundamentos01.users.repositories;
 
 import ec.edu.ups.icc.fundamentos01.users.entities.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -12,4 +16,18 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
     Optional<UserEntity> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    /**
+     * Reemplaza el hash de la contraseña (re-hash al iniciar sesión, ver
+     * UserDetailsServiceImpl.updatePassword) sin cargar la entidad
+     *
+     * Incrementa version: un PUT / PATCH concurrente del usuario responde 409
+     * en lugar de pisar el hash nuevo con el anterior
+     *
+     * @return filas modificadas (0 si el usuario ya no existe)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.password = :password, u.version = u.version + 1 WHERE u.email = :email")
+    int updatePasswordByEmail(@Param("email") String email, @Param("password") String password);
 }
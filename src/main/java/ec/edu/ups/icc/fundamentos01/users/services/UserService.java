@@ -1,6 +1,9 @@
 package ec.edu.ups.icc.fundamentos01.users.services;
 
 import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Page;
 
 import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
 import ec.edu.ups.icc.fundamentos01.users.dtos.CreateUserDto;
@@ -26,4 +29,10 @@ public interface UserService {
 
     List<ProductResponseDto> getProductsByUserIdWithFilters(Long id, String name, Double minPrice, Double maxPrice,
             Long categoryId);
+
+    Page<ProductResponseDto> getProductsByUserIdWithFilters(Long id, String name, Double minPrice, Double maxPrice,
+            Long categoryId, int page, int size, String[] sort);
+
+    Stream<ProductResponseDto> streamProductsByUserIdWithFilters(Long id, String name, Double minPrice,
+            Double maxPrice, Long categoryId);
 }
@@ -2,6 +2,8 @@ package ec.edu.ups.icc.fundamentos01.users.services;
 
 import java.util.Optional;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -9,6 +11,7 @@ import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
 import ec.edu.ups.icc.fundamentos01.products.mappers.ProductMapper;
 import ec.edu.ups.icc.fundamentos01.products.models.Product;
 import ec.edu.ups.icc.fundamentos01.products.repositories.ProductRepository;
+import ec.edu.ups.icc.fundamentos01.products.services.ProductService;
 import ec.edu.ups.icc.fundamentos01.security.models.RoleEntity;
 import ec.edu.ups.icc.fundamentos01.security.models.RoleName;
 import ec.edu.ups.icc.fundamentos01.security.repositories.RoleRepository;
@@ -17,6 +20,7 @@ import ec.edu.ups.icc.fundamentos01.users.dtos.PartialUpdateUserDto;
 import ec.edu.ups.icc.fundamentos01.users.dtos.UpdateUserDto;
 import ec.edu.ups.icc.fundamentos01.users.dtos.UserResponseDto;
 import ec.edu.ups.icc.fundamentos01.users.entities.UserEntity;
+import ec.edu.ups.icc.fundamentos01.users.events.UserChangedEvent;
 import ec.edu.ups.icc.fundamentos01.users.models.User;
 import ec.edu.ups.icc.fundamentos01.users.mappers.UserMapper;
 import ec.edu.ups.icc.fundamentos01.users.repositories.UserRepository;
@@ -27,23 +31,30 @@ import ec.edu.ups.icc.fundamentos01.exception.domain.BadRequestException;
 import java.util.List;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepo;
     private final ProductRepository productRepo;
+    private final ProductService productService;
     private final PasswordEncoder passwordEncoder;
     private final RoleRepository roleRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public UserServiceImpl(UserRepository userRepo,
             ProductRepository productRepo,
+            ProductService productService,
             PasswordEncoder passwordEncoder,
-            RoleRepository roleRepository) {
+            RoleRepository roleRepository,
+            ApplicationEventPublisher eventPublisher) {
         this.userRepo = userRepo;
         this.productRepo = productRepo;
+        this.productService = productService;
         this.passwordEncoder = passwordEncoder;
         this.roleRepository = roleRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -65,6 +76,10 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public UserResponseDto create(CreateUserDto dto) {
+        // Hash antes de cualquier consulta: no retiene una conexión mientras
+        // espera el pool de hashing (ver AuthService.login)
+        String encodedPassword = passwordEncoder.encode(dto.password);
+
         // Validar email unico.
         if (userRepo.existsByEmail(dto.email)) {
             throw new ConflictException("El email ya está registrado");
@@ -73,7 +88,7 @@ public class UserServiceImpl implements UserService {
         return Optional.of(dto)
                 .map(UserMapper::fromCreateDto)
                 .map(user -> {
-                    user.setPassword(passwordEncoder.encode(user.getPassword()));
+                    user.setPassword(encodedPassword);
                     return user;
                 })
                 .map(User::toEntity)
@@ -93,6 +108,10 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public UserResponseDto update(Long id, UpdateUserDto dto) {
+        // Hash antes de cualquier consulta (ver create)
+        boolean passwordChanged = dto.password != null && !dto.password.isBlank();
+        String encodedPassword = passwordChanged ? passwordEncoder.encode(dto.password) : null;
+
         // Validar email unico.
         userRepo.findByEmail(dto.email).ifPresent(existing -> {
             if (!existing.getId().equals(id)) {
@@ -102,20 +121,32 @@ public class UserServiceImpl implements UserService {
 
         UserEntity entity = userRepo.findById(id)
                 .orElseThrow(() -> new NotFoundException("Usuario no encontrado"));
+        String previousEmail = entity.getEmail();
 
         entity.setName(dto.name);
         entity.setEmail(dto.email);
-        if (dto.password != null && !dto.password.isBlank()) {
-            entity.setPassword(passwordEncoder.encode(dto.password));
+        if (passwordChanged) {
+            entity.setPassword(encodedPassword);
         }
 
-        return UserMapper.toResponse(User.fromEntity(userRepo.save(entity)));
+        UserEntity saved = userRepo.save(entity);
+
+        // Invalida copias en memoria del usuario (cache de UserDetails, tokens)
+        eventPublisher.publishEvent(
+                new UserChangedEvent(saved.getId(), previousEmail, saved.getEmail(), passwordChanged));
+
+        return UserMapper.toResponse(User.fromEntity(saved));
     }
 
     @Override
     public UserResponseDto partialUpdate(Long id, PartialUpdateUserDto dto) {
+        // Hash antes de cualquier consulta (ver create)
+        boolean passwordChanged = dto.password != null && !dto.password.isBlank();
+        String encodedPassword = passwordChanged ? passwordEncoder.encode(dto.password) : null;
+
         UserEntity entity = userRepo.findById(id)
                 .orElseThrow(() -> new NotFoundException("Usuario no encontrado"));
+        String previousEmail = entity.getEmail();
 
         if (dto.name != null) {
             entity.setName(dto.name);
@@ -123,11 +154,17 @@ public class UserServiceImpl implements UserService {
         if (dto.email != null) {
             entity.setEmail(dto.email);
         }
-        if (dto.password != null && !dto.password.isBlank()) {
-            entity.setPassword(passwordEncoder.encode(dto.password));
+        if (passwordChanged) {
+            entity.setPassword(encodedPassword);
         }
 
-        return UserMapper.toResponse(User.fromEntity(userRepo.save(entity)));
+        UserEntity saved = userRepo.save(entity);
+
+        // Invalida copias en memoria del usuario (cache de UserDetails, tokens)
+        eventPublisher.publishEvent(
+                new UserChangedEvent(saved.getId(), previousEmail, saved.getEmail(), passwordChanged));
+
+        return UserMapper.toResponse(User.fromEntity(saved));
     }
 
     @Override
@@ -135,7 +172,10 @@ public class UserServiceImpl implements UserService {
         // Elimina si existe.
         userRepo.findById(id)
                 .ifPresentOrElse(
-                        userRepo::delete,
+                        user -> {
+                            userRepo.delete(user);
+                            eventPublisher.publishEvent(new UserChangedEvent(id, user.getEmail(), null));
+                        },
                         () -> {
                             throw new IllegalStateException("Usuario no encontrado");
                         });
@@ -156,24 +196,25 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public List<ProductResponseDto> getProductsByUserIdWithFilters(Long id, String name, Double minPrice,
-            Double maxPrice,
-            Long categoryId) {
-        userRepo.findById(id)
-                .orElseThrow(() -> new NotFoundException("Usuario no encontrado con ID: " + id));
+            Double maxPrice, Long categoryId) {
+        // Filtros en la BD; se leen por lotes y se juntan en la lista de siempre
+        try (Stream<ProductResponseDto> products = productService.streamByUserIdWithSubstringFilters(
+                id, name, minPrice, maxPrice, categoryId)) {
+            return products.toList();
+        }
+    }
 
-        // Obtener todos los productos del usuario
-        List<ProductResponseDto> products = productRepo.findByOwnerId(id)
-                .stream()
-                .map(Product::fromEntity)
-                .map(ProductMapper::toResponse)
-                .toList();
+    @Override
+    public Page<ProductResponseDto> getProductsByUserIdWithFilters(Long id, String name, Double minPrice,
+            Double maxPrice, Long categoryId, int page, int size, String[] sort) {
+        // Filtros y paginación en la BD, con el nombre como subcadena (igual que la lista)
+        return productService.findByUserIdWithSubstringFilters(
+                id, name, minPrice, maxPrice, categoryId, page, size, sort);
+    }
 
-        // Aplicar filtros manualmente
-        return products.stream()
-                .filter(p -> name == null || p.name.toLowerCase().contains(name.toLowerCase()))
-                .filter(p -> minPrice == null || p.price >= minPrice)
-                .filter(p -> maxPrice == null || p.price <= maxPrice)
-                .filter(p -> categoryId == null || p.categories.stream().anyMatch(c -> c.id.equals(categoryId)))
-                .toList();
+    @Override
+    public Stream<ProductResponseDto> streamProductsByUserIdWithFilters(Long id, String name, Double minPrice,
+            Double maxPrice, Long categoryId) {
+        return productService.streamByUserIdWithSubstringFilters(id, name, minPrice, maxPrice, categoryId);
     }
 }
@@ -2,20 +2,32 @@ package ec.edu.ups.icc.fundamentos01.utils;
 
 // JJWT imports
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
 
+// Caffeine imports
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 // Spring imports
 import ec.edu.ups.icc.fundamentos01.config.JwtProperties;
+import ec.edu.ups.icc.fundamentos01.security.services.JwtKeyService;
 import ec.edu.ups.icc.fundamentos01.security.services.UserDetailsImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 import java.util.stream.Collectors;
 
 @Component
@@ -24,36 +36,71 @@ public class JwtUtil {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
 
     private final JwtProperties jwtProperties;
-    private final SecretKey key;
+    private final JwtKeyService jwtKeyService;
+
+    /**
+     * Parser inmutable y thread-safe: se construye una sola vez en lugar de
+     * crear un Jwts.parser() nuevo en cada validación
+     */
+    private final JwtParser parser;
+
+    /**
+     * Cache de tokens ya verificados: digest SHA-256 del token → claims
+     * 
+     * - Acotado por tamaño (jwt.verified-token-cache-size)
+     * - Cada entrada expira exactamente en el "exp" del token, así un token
+     *   vencido nunca se sirve desde el cache
+     * - Se guarda el digest y no el token para no retener credenciales en memoria
+     */
+    private final Cache<String, Claims> verifiedTokens;
 
     /**
-     * Constructor: Inicializa JwtUtil con propiedades y clave secreta
+     * Constructor: Inicializa JwtUtil con propiedades y claves de firma
      * 
      * @param jwtProperties: Inyectado automáticamente por Spring
      *                       Contiene: secret, expiration, issuer, etc.
+     * @param jwtKeyService: Claves de firma y verificación
+     *                       HS256 con jwt.secret (por defecto), o Ed25519 / ES256
+     *                       con rotación de claves (jwt.signing)
      */
-    public JwtUtil(JwtProperties jwtProperties) {
+    public JwtUtil(JwtProperties jwtProperties, JwtKeyService jwtKeyService) {
         this.jwtProperties = jwtProperties;
+        this.jwtKeyService = jwtKeyService;
 
         /**
-         * Genera clave segura para algoritmo HS256
-         * 
-         * Keys.hmacShaKeyFor(): Convierte String a SecretKey
-         * .getBytes(): Convierte String a byte array
+         * keyLocator: la clave se elige por el header de cada token
          * 
-         * Requisitos:
-         * - Mínimo 256 bits (32 caracteres) para HS256
-         * - Si es menor, lanza WeakKeyException
+         * - HS256: siempre la SecretKey de jwt.secret
+         * - Ed25519 / ES256: la clave pública del "kid" (local o del JWKS
+         *   remoto), ya decodificada por JwtKeyService
          * 
-         * Ejemplo:
-         * secret = "mySecretKeyForJWT2024MustBeAtLeast256BitsLongForHS256Algorithm"
-         * key = SecretKey basada en esos bytes
-         * 
-         * Esta key se usa para:
-         * - Firmar tokens al generarlos (signWith)
-         * - Verificar tokens al validarlos (verifyWith)
+         * Un token con otro "alg" se rechaza antes de verificar la firma
          */
-        this.key = Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes());
+        this.parser = Jwts.parser()
+                .keyLocator(jwtKeyService.keyLocator())
+                .build();
+
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(jwtProperties.getVerifiedTokenCacheSize())
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+                        return timeUntilExpiration(claims).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, Claims claims, long currentTime,
+                            long currentDuration) {
+                        return timeUntilExpiration(claims).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, Claims claims, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     /**
@@ -87,7 +134,7 @@ public class JwtUtil {
                 .collect(Collectors.joining(",")); // Une con comas
 
         // 4. Construir y firmar el token JWT
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 // Subject: Identificador único del usuario (su ID)
                 .subject(String.valueOf(userPrincipal.getId())) // "1"
 
@@ -101,10 +148,11 @@ public class JwtUtil {
 
                 // Fechas
                 .issuedAt(now) // Cuándo se creó
-                .expiration(expiryDate) // Cuándo expira
+                .expiration(expiryDate); // Cuándo expira
 
-                // Firma digital con algoritmo HS256
-                .signWith(key, Jwts.SIG.HS256) // Firma con clave secreta
+        // Firma digital: HS256 con clave secreta, o EdDSA / ES256 con la clave
+        // privada vigente (agrega el "kid" al header)
+        return jwtKeyService.sign(builder)
 
                 // Compactar: Genera el String final
                 .compact(); // → "eyJhbGci...header.eyJzdWI...payload.firma"
@@ -129,41 +177,53 @@ public class JwtUtil {
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.joining(","));
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .subject(String.valueOf(userDetails.getId()))
                 .claim("email", userDetails.getEmail())
                 .claim("name", userDetails.getName())
                 .claim("roles", roles)
                 .issuer(jwtProperties.getIssuer())
                 .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(key, Jwts.SIG.HS256)
-                .compact();
+                .expiration(expiryDate);
+
+        return jwtKeyService.sign(builder).compact();
     }
 
     /**
-     * Extrae el ID de usuario del token
+     * Parsea y verifica el token UNA sola vez
+     * 
+     * Único punto de entrada para leer claims:
+     * 1. Busca el digest del token en el cache de tokens verificados
+     * 2. Si no está, verifica firma y expiración con el parser compartido
+     * 3. Guarda los claims hasta el "exp" del token
      * 
-     * Se usa en JwtAuthenticationFilter para:
-     * 1. Validar el token
-     * 2. Extraer el ID del usuario
-     * 3. Cargar el usuario desde BD
+     * @param token: Token JWT (sin "Bearer ")
+     * @return Claims verificados
+     * @throws JwtException si la firma, el formato o la expiración no son válidos
+     * @throws IllegalArgumentException si el token está vacío
+     */
+    public Claims parseVerified(String token) {
+        String digest = digest(token);
+
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        verifiedTokens.put(digest, claims);
+        return claims;
+    }
+
+    /**
+     * Extrae el ID de usuario del token
      * 
      * @param token: Token JWT (sin "Bearer ")
      * @return Long: ID del usuario
      */
     public Long getUserIdFromToken(String token) {
-        // 1. Parsear y validar el token
-        Claims claims = Jwts.parser()
-                .verifyWith(key) // Verifica firma con clave secreta
-                .build() // Construye el parser
-                .parseSignedClaims(token) // Parsea el token
-                .getPayload(); // Obtiene el payload (claims)
-
-        // 2. Extraer el subject (ID del usuario)
         // subject = "1" (guardado como String en el token)
-        // Long.parseLong("1") = 1L
-        return Long.parseLong(claims.getSubject());
+        return Long.parseLong(parseVerified(token).getSubject());
     }
 
     /**
@@ -172,18 +232,44 @@ public class JwtUtil {
      * Similar a getUserIdFromToken pero extrae un claim personalizado
      */
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
         // Extraer claim "email" como String
-        return claims.get("email", String.class);
+        return parseVerified(token).get("email", String.class);
     }
 
     /**
-     * Valida el token JWT
+     * Reconstruye el usuario autenticado desde los claims, SIN consultar la BD
+     * 
+     * Usado cuando jwt.principal-mode=claims. El token ya trae todo lo necesario:
+     * - sub → id
+     * - email, name
+     * - roles → "ROLE_USER,ROLE_ADMIN"
+     * 
+     * La contraseña queda en null: el token ya autenticó al usuario.
+     * 
+     * @param claims Claims verificados (ver parseVerified)
+     * @return UserDetailsImpl equivalente al que carga UserDetailsServiceImpl
+     */
+    public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+        String roles = claims.get("roles", String.class);
+
+        List<GrantedAuthority> authorities = roles == null || roles.isBlank()
+                ? List.of()
+                : Arrays.stream(roles.split(","))
+                        .map(String::trim)
+                        .filter(role -> !role.isEmpty())
+                        .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                        .toList();
+
+        return new UserDetailsImpl(
+                Long.parseLong(claims.getSubject()),
+                claims.get("name", String.class),
+                claims.get("email", String.class),
+                null,
+                authorities);
+    }
+
+    /**
+     * Valida el token JWT y devuelve sus claims
      * 
      * VERIFICA:
      * 1. Firma: ¿El token fue firmado por nosotros?
@@ -193,19 +279,11 @@ public class JwtUtil {
      * Se usa en JwtAuthenticationFilter en CADA REQUEST
      * 
      * @param authToken: Token completo (sin "Bearer ")
-     * @return boolean: true si válido, false si inválido
+     * @return Claims si el token es válido, null si es inválido
      */
-    public boolean validateToken(String authToken) {
+    public Claims getValidClaims(String authToken) {
         try {
-            // Intenta parsear el token
-            // Si algo falla, lanza excepción
-            Jwts.parser()
-                    .verifyWith(key) // Verifica firma con nuestra clave
-                    .build()
-                    .parseSignedClaims(authToken);
-
-            // Si llegamos aquí, el token es VÁLIDO
-            return true;
+            return parseVerified(authToken);
 
         } catch (SignatureException ex) {
             // Firma inválida: Token modificado o clave incorrecta
@@ -224,7 +302,8 @@ public class JwtUtil {
 
         } catch (UnsupportedJwtException ex) {
             // Token no soportado: Usa algoritmo que no soportamos
-            // Ejemplo: Token firmado con RS256 pero esperamos HS256
+            // Ejemplo: Token firmado con RS256 pero esperamos HS256, o un
+            // "kid" que no corresponde a ninguna clave vigente
             logger.error("Token JWT no soportado: {}", ex.getMessage());
 
         } catch (IllegalArgumentException ex) {
@@ -233,6 +312,46 @@ public class JwtUtil {
         }
 
         // Si cayó en cualquier catch, el token es INVÁLIDO
-        return false;
+        return null;
+    }
+
+    /**
+     * Valida el token JWT
+     * 
+     * @param authToken: Token completo (sin "Bearer ")
+     * @return boolean: true si válido, false si inválido
+     */
+    public boolean validateToken(String authToken) {
+        return getValidClaims(authToken) != null;
+    }
+
+    // ============== HELPERS DEL CACHE ==============
+
+    /**
+     * Tiempo de vida de una entrada del cache: hasta el "exp" del token
+     */
+    private static Duration timeUntilExpiration(Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return Duration.ZERO; // Sin "exp" no se cachea
+        }
+        long millis = expiration.getTime() - System.currentTimeMillis();
+        return Duration.ofMillis(Math.max(millis, 0));
+    }
+
+    /**
+     * Digest SHA-256 del token en Base64 (clave del cache)
+     */
+    private static String digest(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("El token está vacío");
+        }
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 no disponible", ex);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,62 @@
+-- =====================================================================
+-- V1: Esquema base (equivalente a lo que generaba ddl-auto=update)
+--
+-- Usa IF NOT EXISTS para que las bases existentes, creadas por Hibernate,
+-- puedan adoptarse con baseline-on-migrate sin errores.
+-- =====================================================================
+
+CREATE TABLE IF NOT EXISTS users (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6),
+    deleted     BOOLEAN NOT NULL,
+    name        VARCHAR(150) NOT NULL,
+    email       VARCHAR(150) NOT NULL,
+    password    VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS roles (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6),
+    deleted     BOOLEAN NOT NULL,
+    name        VARCHAR(50) NOT NULL,
+    description VARCHAR(200),
+    CONSTRAINT uk_roles_name UNIQUE (name),
+    CONSTRAINT ck_roles_name CHECK (name IN ('ROLE_USER', 'ROLE_ADMIN', 'ROLE_MODERATOR'))
+);
+
+CREATE TABLE IF NOT EXISTS user_roles (
+    user_id     BIGINT NOT NULL REFERENCES users (id),
+    role_id     BIGINT NOT NULL REFERENCES roles (id),
+    PRIMARY KEY (user_id, role_id)
+);
+
+CREATE TABLE IF NOT EXISTS categories (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6),
+    deleted     BOOLEAN NOT NULL,
+    name        VARCHAR(100) NOT NULL,
+    description VARCHAR(500),
+    CONSTRAINT uk_categories_name UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS products (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    created_at  TIMESTAMP(6),
+    updated_at  TIMESTAMP(6),
+    deleted     BOOLEAN NOT NULL,
+    name        VARCHAR(200) NOT NULL,
+    description VARCHAR(500),
+    price       DOUBLE PRECISION NOT NULL,
+    stock       INTEGER NOT NULL,
+    user_id     BIGINT NOT NULL REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS product_categories (
+    product_id  BIGINT NOT NULL REFERENCES products (id),
+    category_id BIGINT NOT NULL REFERENCES categories (id),
+    PRIMARY KEY (product_id, category_id)
+);
@@ -0,0 +1,28 @@
+-- =====================================================================
+-- V2: Índices de búsqueda de productos por nombre
+--
+-- LOWER(name) LIKE '%texto%' no puede usar un índice B-tree. Se agregan:
+--
+-- 1. Trigramas (pg_trgm) sobre LOWER(name): sirve LIKE '%texto%' y
+--    similarity() (modo LIKE y búsqueda rankeada)
+-- 2. Texto completo: columna tsvector generada (nombre + descripción, en
+--    español) con índice GIN (modo FULLTEXT)
+--
+-- La columna se guarda (STORED) en lugar de indexar la expresión: PostgreSQL
+-- tiene estadísticas reales de la columna para estimar cuántas filas coinciden,
+-- y filtrar una fila no obliga a recalcular to_tsvector().
+-- =====================================================================
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm
+    ON products USING gin (lower(name) gin_trgm_ops);
+
+ALTER TABLE products
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        to_tsvector('spanish', coalesce(name, '') || ' ' || coalesce(description, ''))
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_products_search_vector
+    ON products USING gin (search_vector);
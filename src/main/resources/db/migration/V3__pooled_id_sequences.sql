@@ -0,0 +1,27 @@
+-- =====================================================================
+-- V3: IDs por secuencia en lugar de IDENTITY
+--
+-- Con GENERATED ... AS IDENTITY Hibernate tiene que ejecutar cada INSERT por
+-- separado para leer el ID generado, lo que desactiva los lotes JDBC.
+-- Cada tabla pasa a tener su secuencia <tabla>_seq con INCREMENT BY 50
+-- (igual al allocationSize por defecto): Hibernate reserva un bloque de 50 IDs
+-- con un solo nextval() y los asigna en memoria (optimizador pooled-lo).
+--
+-- La columna conserva un DEFAULT nextval(...) para que los INSERT en SQL
+-- directo (scripts, benchmarks) sigan funcionando sin chocar con los bloques.
+-- =====================================================================
+
+DO $$
+DECLARE
+    t TEXT;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['users', 'roles', 'categories', 'products'] LOOP
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I INCREMENT BY 50', t || '_seq');
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', t);
+        -- El siguiente valor continúa después del mayor ID existente
+        EXECUTE format('SELECT setval(%L, COALESCE((SELECT max(id) FROM %I), 0) + 1, false)',
+                t || '_seq', t);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET DEFAULT nextval(%L)', t, t || '_seq');
+        EXECUTE format('ALTER SEQUENCE %I OWNED BY %I.id', t || '_seq', t);
+    END LOOP;
+END $$;
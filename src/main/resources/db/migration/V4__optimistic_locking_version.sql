@@ -0,0 +1,13 @@
+-- =====================================================================
+-- V4: columna de versión para bloqueo optimista (@Version en BaseModel)
+--
+-- Hibernate incrementa version en cada UPDATE y agrega "AND version = ?"
+-- al WHERE: si otra transacción ya modificó la fila el UPDATE no afecta
+-- filas y la escritura falla con 409 en lugar de pisar el cambio ajeno.
+-- Las filas existentes empiezan en 0.
+-- =====================================================================
+
+ALTER TABLE users      ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE roles      ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE categories ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE products   ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,17 @@
+-- =====================================================================
+-- V5: nombre de producto único en la BD
+--
+-- ProductServiceImpl valida que el nombre no exista antes de guardar, pero
+-- entre la validación y el INSERT otra solicitud puede guardar el mismo
+-- nombre. El índice único cierra esa carrera (409 en GlobalExceptionHandler)
+-- y sirve las consultas de unicidad por nombre (findIdByName).
+--
+-- Los duplicados que haya dejado esa carrera conservan el nombre en la fila
+-- más antigua; las demás reciben el sufijo " #<id>".
+-- =====================================================================
+
+UPDATE products p
+SET name = LEFT(p.name, 200 - LENGTH(' #' || p.id)) || ' #' || p.id
+WHERE EXISTS (SELECT 1 FROM products q WHERE q.name = p.name AND q.id < p.id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_products_name ON products (name);
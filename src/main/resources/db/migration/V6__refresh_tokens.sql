@@ -0,0 +1,22 @@
+-- =====================================================================
+-- V6: refresh tokens con rotación (ver RefreshTokenService)
+--
+-- Una fila por FAMILIA (la cadena de tokens que sale de un login), no por
+-- token emitido: cada rotación reemplaza token_hash. El token es opaco y
+-- solo se guarda su SHA-256 (Base64URL, 43 caracteres); un token de la
+-- familia que no es el actual es una reutilización y borra la familia.
+--
+-- expires_at es absoluto (login + jwt.refresh-expiration); las familias
+-- vencidas las borra una tarea programada.
+-- =====================================================================
+
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    family_id   UUID PRIMARY KEY,
+    user_id     BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    token_hash  VARCHAR(43) NOT NULL,
+    expires_at  TIMESTAMP(6) NOT NULL,
+    rotated_at  TIMESTAMP(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user ON refresh_tokens (user_id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
@@ -0,0 +1,182 @@
+package ec.edu.ups.icc.fundamentos01.benchmarks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ec.edu.ups.icc.fundamentos01.products.dtos.BulkProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.CreateProductDto;
+import ec.edu.ups.icc.fundamentos01.products.services.ProductService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Benchmark: alta masiva de productos con y sin lotes JDBC
+ *
+ * Ejecutar con: ./gradlew benchmark
+ *
+ * Ejecuta ProductService.bulkCreate con el mismo lote de filas de dos formas,
+ * alternadas en cada corrida:
+ * - en lotes (IDs por secuencia + hibernate.jdbc.batch_size)
+ * - fila por fila (batch size 1 en la sesión), que es lo que obligaba IDENTITY
+ * Cada corrida borra sus productos y hace VACUUM antes de la siguiente.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        // El log de SQL en consola distorsiona las mediciones
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        // Cuenta las sentencias preparadas de cada corrida
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductBulkInsertBenchmark {
+
+    private static final int[] SIZES = { 100, 1_000, 5_000 };
+    private static final int WARMUP = 2;
+    private static final int RUNS = 7;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    private Statistics statistics;
+    private String prefix;
+    private Long ownerId;
+    private Long categoryId;
+
+    @BeforeAll
+    void seedOwner() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        prefix = "bench-" + UUID.randomUUID().toString().substring(0, 8);
+        ownerId = jdbc.queryForObject(
+                "INSERT INTO users (name, email, password, created_at, deleted) " +
+                        "VALUES ('Benchmark', ?, 'x', now(), false) RETURNING id",
+                Long.class, prefix + "@example.com");
+        categoryId = jdbc.queryForObject(
+                "INSERT INTO categories (name, created_at, deleted) VALUES (?, now(), false) RETURNING id",
+                Long.class, prefix);
+    }
+
+    @AfterAll
+    void dropOwner() {
+        deleteProducts();
+        jdbc.update("DELETE FROM categories WHERE id = ?", categoryId);
+        jdbc.update("DELETE FROM users WHERE id = ?", ownerId);
+    }
+
+    @Test
+    void bulkCreateBatchedVsRowByRow() {
+        System.out.printf("%n%-8s %12s %12s %12s %12s %12s %12s%n", "filas",
+                "lotes (ms)", "lotes (f/s)", "sentencias",
+                "fila (ms)", "fila (f/s)", "sentencias");
+
+        for (int size : SIZES) {
+            List<CreateProductDto> items = items(size);
+
+            for (int i = 0; i < WARMUP; i++) {
+                bulkCreate(items, null);
+                bulkCreate(items, 1);
+            }
+            List<Run> batched = new ArrayList<>();
+            List<Run> rowByRow = new ArrayList<>();
+            for (int i = 0; i < RUNS; i++) {
+                batched.add(bulkCreate(items, null));
+                rowByRow.add(bulkCreate(items, 1));
+            }
+
+            Run batchedMedian = median(batched);
+            Run rowByRowMedian = median(rowByRow);
+            System.out.printf("%-8d %12.2f %12.0f %12d %12.2f %12.0f %12d%n", size,
+                    batchedMedian.millis(), batchedMedian.rowsPerSecond(size), batchedMedian.statements(),
+                    rowByRowMedian.millis(), rowByRowMedian.rowsPerSecond(size), rowByRowMedian.statements());
+        }
+    }
+
+    private List<CreateProductDto> items(int size) {
+        return IntStream.range(0, size).mapToObj(i -> {
+            CreateProductDto dto = new CreateProductDto();
+            dto.name = prefix + "-" + i;
+            dto.description = "benchmark";
+            dto.price = i % 1000 + 0.99;
+            dto.stock = i % 50;
+            dto.userId = ownerId;
+            dto.categoryIds = Set.of(categoryId);
+            return dto;
+        }).toList();
+    }
+
+    /**
+     * Una corrida de bulkCreate; jdbcBatchSize null usa la configuración de application.yml
+     */
+    private Run bulkCreate(List<CreateProductDto> items, Integer jdbcBatchSize) {
+        statistics.clear();
+        long start = System.nanoTime();
+        BulkProductResponseDto response = tx.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            return productService.bulkCreate(items);
+        });
+        Run run = new Run(System.nanoTime() - start, statistics.getPrepareStatementCount());
+
+        assertThat(response.succeeded).isEqualTo(items.size());
+        deleteProducts();
+        return run;
+    }
+
+    private void deleteProducts() {
+        jdbc.update("DELETE FROM product_categories WHERE category_id = ?", categoryId);
+        jdbc.update("DELETE FROM products WHERE user_id = ?", ownerId);
+        // Sin VACUUM las filas muertas y la lista pendiente de los índices GIN
+        // se cobran a la corrida siguiente
+        jdbc.execute("VACUUM products, product_categories");
+    }
+
+    private static Run median(List<Run> runs) {
+        List<Run> sorted = new ArrayList<>(runs);
+        sorted.sort(Comparator.comparingLong(Run::nanos));
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private record Run(long nanos, long statements) {
+
+        double millis() {
+            return nanos / 1_000_000.0;
+        }
+
+        double rowsPerSecond(int rows) {
+            return rows / (nanos / 1_000_000_000.0);
+        }
+    }
+}
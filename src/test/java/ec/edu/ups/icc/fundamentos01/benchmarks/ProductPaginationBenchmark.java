@@ -0,0 +1,128 @@
+package ec.edu.ups.icc.fundamentos01.benchmarks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.services.ProductCursor;
+import ec.edu.ups.icc.fundamentos01.products.services.ProductService;
+
+/**
+ * Benchmark: latencia de páginas profundas con OFFSET vs keyset (cursor)
+ *
+ * Ejecutar con: ./gradlew benchmark
+ *
+ * Inserta un catálogo grande con generate_series, mide la mediana de cada
+ * estrategia en varias profundidades y borra los datos al terminar.
+ * Con OFFSET la BD recorre y descarta todas las filas anteriores; con keyset
+ * salta a la posición por el índice de la clave primaria.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        // El log de SQL en consola distorsiona las mediciones
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductPaginationBenchmark {
+
+    private static final int CATALOG_SIZE = 200_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int[] DEPTHS = { 0, 1_000, 10_000, 100_000, 190_000 };
+    private static final int WARMUP = 3;
+    private static final int RUNS = 15;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private Long ownerId;
+
+    @BeforeAll
+    void seedCatalog() {
+        String email = "bench-" + UUID.randomUUID() + "@example.com";
+        ownerId = jdbc.queryForObject(
+                "INSERT INTO users (name, email, password, created_at, deleted) " +
+                        "VALUES ('Benchmark', ?, 'x', now(), false) RETURNING id",
+                Long.class, email);
+
+        jdbc.update(
+                "INSERT INTO products (name, description, price, stock, user_id, created_at, deleted) " +
+                        "SELECT 'bench-' || g, 'benchmark', (g % 1000) + 0.99, g % 50, ?, now(), false " +
+                        "FROM generate_series(1, ?) g",
+                ownerId, CATALOG_SIZE);
+        jdbc.execute("ANALYZE products");
+    }
+
+    @AfterAll
+    void dropCatalog() {
+        jdbc.update("DELETE FROM products WHERE user_id = ?", ownerId);
+        jdbc.update("DELETE FROM users WHERE id = ?", ownerId);
+    }
+
+    @Test
+    void deepPageLatencyOffsetVsKeyset() {
+        System.out.printf("%n%-10s %15s %15s%n", "offset", "OFFSET (ms)", "keyset (ms)");
+
+        for (int depth : DEPTHS) {
+            int page = depth / PAGE_SIZE;
+            String cursor = cursorBefore(page * PAGE_SIZE);
+
+            List<Long> byOffset = ids(productService.findAll(page, PAGE_SIZE, new String[] { "id" }).getContent());
+            List<Long> byKeyset = ids(productService.findAllByCursor(cursor, PAGE_SIZE, null).content);
+            assertThat(byKeyset).isEqualTo(byOffset);
+
+            double offsetMs = medianMillis(() -> productService.findAll(page, PAGE_SIZE, new String[] { "id" }));
+            double keysetMs = medianMillis(() -> productService.findAllByCursor(cursor, PAGE_SIZE, null));
+
+            System.out.printf("%-10d %15.2f %15.2f%n", page * PAGE_SIZE, offsetMs, keysetMs);
+        }
+    }
+
+    /**
+     * Cursor equivalente a haber recorrido las primeras "skip" filas ordenadas por ID
+     */
+    private String cursorBefore(int skip) {
+        if (skip == 0) {
+            return null;
+        }
+        Long lastId = jdbc.queryForObject(
+                "SELECT id FROM products ORDER BY id OFFSET ? LIMIT 1", Long.class, skip - 1);
+        return new ProductCursor("id", false, lastId, lastId).encode();
+    }
+
+    private static List<Long> ids(List<ProductResponseDto> products) {
+        return products.stream().map(product -> product.id).toList();
+    }
+
+    private static double medianMillis(Supplier<?> call) {
+        for (int i = 0; i < WARMUP; i++) {
+            call.get();
+        }
+        List<Long> samples = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            call.get();
+            samples.add(System.nanoTime() - start);
+        }
+        Collections.sort(samples);
+        return samples.get(RUNS / 2) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,149 @@
+package ec.edu.ups.icc.fundamentos01.benchmarks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ec.edu.ups.icc.fundamentos01.config.ProductSearchProperties.Mode;
+import ec.edu.ups.icc.fundamentos01.products.projections.ProductRow;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductFilter;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductRepository;
+
+/**
+ * Benchmark: búsqueda por nombre con índices (pg_trgm / tsvector) vs escaneo secuencial
+ *
+ * Ejecutar con: ./gradlew benchmark
+ *
+ * Inserta un catálogo de 1M de productos con generate_series y ejecuta la MISMA
+ * consulta de ProductRepository.findRows dos veces:
+ * - con índices (plan normal)
+ * - sin índices (SET LOCAL enable_bitmapscan/enable_indexscan = off), que
+ *   equivale al LOWER(name) LIKE '%texto%' original
+ * Borra los datos al terminar.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        // El log de SQL en consola distorsiona las mediciones
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductSearchBenchmark {
+
+    private static final int CATALOG_SIZE = 1_000_000;
+    private static final int WARMUP = 2;
+    private static final int RUNS = 7;
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    private Long ownerId;
+
+    @BeforeAll
+    void seedCatalog() {
+        String email = "bench-" + UUID.randomUUID() + "@example.com";
+        ownerId = jdbc.queryForObject(
+                "INSERT INTO users (name, email, password, created_at, deleted) " +
+                        "VALUES ('Benchmark', ?, 'x', now(), false) RETURNING id",
+                Long.class, email);
+
+        // Nombres tipo "monitor gamer 123456": 10 productos x 10 variantes x número único
+        jdbc.update(
+                "INSERT INTO products (name, description, price, stock, user_id, created_at, deleted) " +
+                        "SELECT (ARRAY['laptop','mouse','teclado','monitor','silla','cable','auricular'," +
+                        "'parlante','camara','impresora'])[1 + g % 10] || ' ' || " +
+                        "(ARRAY['pro','max','mini','ultra','gamer','oficina','inalambrico','usb','hd'," +
+                        "'plus'])[1 + (g / 10) % 10] || ' ' || g, " +
+                        "'modelo ' || g || ' con garantia', (g % 1000) + 0.99, g % 50, ?, now(), false " +
+                        "FROM generate_series(1, ?) g",
+                ownerId, CATALOG_SIZE);
+        jdbc.execute("ANALYZE products");
+    }
+
+    @AfterAll
+    void dropCatalog() {
+        jdbc.update("DELETE FROM products WHERE user_id = ?", ownerId);
+        jdbc.update("DELETE FROM users WHERE id = ?", ownerId);
+    }
+
+    @Test
+    void nameSearchIndexedVsSequentialScan() {
+        Pageable byId = PageRequest.of(0, 20, Sort.by("id"));
+
+        System.out.printf("%n%-32s %15s %15s%n", "búsqueda", "índice (ms)", "seq scan (ms)");
+        measure("LIKE '123456'", () -> productRepo.findRows(
+                text(Mode.LIKE, "123456"), false, byId));
+        measure("LIKE 'gamer 12'", () -> productRepo.findRows(
+                text(Mode.LIKE, "gamer 12"), false, byId));
+        measure("LIKE 'gamer 12' rankeado", () -> productRepo.findRows(
+                text(Mode.LIKE, "gamer 12"), true, byId));
+        measure("FULLTEXT 'monitor gamer'", () -> productRepo.findRows(
+                text(Mode.FULLTEXT, "monitor gamer"), false, byId));
+        measure("FULLTEXT 'monitor gamer' rankeado", () -> productRepo.findRows(
+                text(Mode.FULLTEXT, "monitor gamer"), true, byId));
+        measure("FULLTEXT '123456'", () -> productRepo.findRows(
+                text(Mode.FULLTEXT, "123456"), false, byId));
+        measure("FULLTEXT '123456' rankeado", () -> productRepo.findRows(
+                text(Mode.FULLTEXT, "123456"), true, byId));
+    }
+
+    private static ProductFilter text(Mode mode, String text) {
+        return new ProductFilter(text, mode, null, null, null, null);
+    }
+
+    private void measure(String label, Supplier<Page<ProductRow>> search) {
+        Supplier<Page<ProductRow>> indexed = () -> tx.execute(status -> search.get());
+        Supplier<Page<ProductRow>> sequential = () -> tx.execute(status -> {
+            jdbc.execute("SET LOCAL enable_bitmapscan = off");
+            jdbc.execute("SET LOCAL enable_indexscan = off");
+            return search.get();
+        });
+
+        assertThat(ids(indexed.get())).isEqualTo(ids(sequential.get()));
+
+        System.out.printf("%-32s %15.2f %15.2f%n", label, medianMillis(indexed), medianMillis(sequential));
+    }
+
+    private static List<Long> ids(Page<ProductRow> page) {
+        return page.getContent().stream().map(ProductRow::id).toList();
+    }
+
+    private static double medianMillis(Supplier<?> call) {
+        for (int i = 0; i < WARMUP; i++) {
+            call.get();
+        }
+        List<Long> samples = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            call.get();
+            samples.add(System.nanoTime() - start);
+        }
+        Collections.sort(samples);
+        return samples.get(RUNS / 2) / 1_000_000.0;
+    }
+}
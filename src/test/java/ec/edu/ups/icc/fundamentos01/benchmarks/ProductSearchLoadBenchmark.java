@@ -0,0 +1,239 @@
+package ec.edu.ups.icc.fundamentos01.benchmarks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import ec.edu.ups.icc.fundamentos01.Fundamentos01Application;
+import ec.edu.ups.icc.fundamentos01.security.services.UserDetailsImpl;
+import ec.edu.ups.icc.fundamentos01.utils.JwtUtil;
+
+/**
+ * Benchmark de carga: GET /api/products/search con hilos de plataforma vs hilos virtuales
+ *
+ * Ejecutar con: ./gradlew benchmark
+ *
+ * Levanta la aplicación completa (Tomcat en un puerto libre) dos veces, con
+ * spring.threads.virtual.enabled=false y =true, sobre un catálogo de
+ * CATALOG_SIZE productos. Para cada cantidad de clientes concurrentes, cada
+ * cliente (un hilo virtual con java.net.http.HttpClient) repite la búsqueda
+ * autenticada sin pausa: WARMUP sin medir y MEASURE midiendo.
+ *
+ * Reporta solicitudes por segundo, latencia p50 / p99 y errores (status
+ * distinto de 200 o sin respuesta). Los clientes corren en la misma JVM que
+ * el servidor: sirve para comparar los dos modos entre sí, no como capacidad
+ * absoluta. Con 10k clientes hacen falta ~20k descriptores de archivo (ulimit -n).
+ */
+@Tag("benchmark")
+class ProductSearchLoadBenchmark {
+
+    private static final int[] CLIENTS = { 1_000, 2_500, 5_000, 10_000 };
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration MEASURE = Duration.ofSeconds(15);
+    private static final int CATALOG_SIZE = 100_000;
+
+    @Test
+    void platformVsVirtualThreads() throws Exception {
+        List<Result> platform = run(false);
+        List<Result> virtual = run(true);
+
+        System.out.printf("%n%-9s | %10s %9s %9s %8s | %10s %9s %9s %8s%n", "clientes",
+                "plat req/s", "p50 (ms)", "p99 (ms)", "errores",
+                "virt req/s", "p50 (ms)", "p99 (ms)", "errores");
+        for (int i = 0; i < CLIENTS.length; i++) {
+            Result p = platform.get(i);
+            Result v = virtual.get(i);
+            System.out.printf("%-9d | %10.0f %9.1f %9.1f %8d | %10.0f %9.1f %9.1f %8d%n", CLIENTS[i],
+                    p.requestsPerSecond(), p.percentileMillis(0.50), p.percentileMillis(0.99), p.errors(),
+                    v.requestsPerSecond(), v.percentileMillis(0.50), v.percentileMillis(0.99), v.errors());
+        }
+    }
+
+    /**
+     * Una aplicación con el modo de hilos indicado, todas las cantidades de clientes
+     */
+    private List<Result> run(boolean virtualThreads) throws Exception {
+        int maxClients = Arrays.stream(CLIENTS).max().orElseThrow();
+
+        // Como argumentos (no defaultProperties) para que tengan prioridad sobre application.yml
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(Fundamentos01Application.class)
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        // Todos los clientes conectados a la vez en los dos modos
+                        "--server.tomcat.max-connections=" + (maxClients + 1_000),
+                        "--server.tomcat.accept-count=" + maxClients,
+                        // El log de SQL y de cada solicitud distorsiona las mediciones
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "--logging.level.ec.edu.ups.icc.fundamentos01=WARN")) {
+
+            JdbcTemplate jdbc = app.getBean(JdbcTemplate.class);
+            String prefix = "load-" + UUID.randomUUID().toString().substring(0, 8);
+            Long ownerId = seedCatalog(jdbc, prefix);
+
+            try (HttpClient http = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build()) {
+
+                String token = app.getBean(JwtUtil.class).generateTokenFromUserDetails((UserDetailsImpl) app
+                        .getBean(UserDetailsService.class).loadUserByUsername(prefix + "@example.com"));
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:"
+                        + app.getEnvironment().getProperty("local.server.port")
+                        + "/api/products/search?name=gamer&page=0&size=20"))
+                        .header("Authorization", "Bearer " + token)
+                        .timeout(Duration.ofSeconds(30))
+                        .GET()
+                        .build();
+
+                assertThat(http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode())
+                        .isEqualTo(200);
+
+                List<Result> results = new ArrayList<>();
+                for (int clients : CLIENTS) {
+                    results.add(load(http, request, clients));
+                }
+                return results;
+            } finally {
+                jdbc.update("DELETE FROM products WHERE user_id = ?", ownerId);
+                jdbc.update("DELETE FROM users WHERE id = ?", ownerId);
+            }
+        }
+    }
+
+    /**
+     * Catálogo con nombres tipo "monitor gamer 123" (uno de cada 10 contiene "gamer")
+     */
+    private static Long seedCatalog(JdbcTemplate jdbc, String prefix) {
+        Long ownerId = jdbc.queryForObject(
+                "INSERT INTO users (name, email, password, created_at, deleted) " +
+                        "VALUES ('Benchmark', ?, 'x', now(), false) RETURNING id",
+                Long.class, prefix + "@example.com");
+        jdbc.update(
+                "INSERT INTO products (name, description, price, stock, user_id, created_at, deleted) " +
+                        "SELECT (ARRAY['laptop','mouse','teclado','monitor','silla','cable','auricular'," +
+                        "'parlante','camara','impresora'])[1 + g % 10] || ' ' || " +
+                        "(ARRAY['pro','max','mini','ultra','gamer','oficina','inalambrico','usb','hd'," +
+                        "'plus'])[1 + (g / 10) % 10] || ' ' || ? || '-' || g, " +
+                        "'modelo ' || g || ' con garantia', (g % 1000) + 0.99, g % 50, ?, now(), false " +
+                        "FROM generate_series(1, ?) g",
+                prefix, ownerId, CATALOG_SIZE);
+        jdbc.execute("ANALYZE products");
+        return ownerId;
+    }
+
+    private static Result load(HttpClient http, HttpRequest request, int clients)
+            throws InterruptedException, ExecutionException {
+        long measureFrom = System.nanoTime() + WARMUP.toNanos();
+        long measureUntil = measureFrom + MEASURE.toNanos();
+
+        List<Future<Samples>> futures = new ArrayList<>(clients);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> client(http, request, measureFrom, measureUntil)));
+            }
+        }
+
+        Samples total = new Samples();
+        for (Future<Samples> future : futures) {
+            total.addAll(future.get());
+        }
+        return total.result(MEASURE);
+    }
+
+    /**
+     * Un cliente: repite la solicitud hasta measureUntil; solo registra las
+     * que terminaron entre measureFrom y measureUntil
+     */
+    private static Samples client(HttpClient http, HttpRequest request, long measureFrom, long measureUntil) {
+        Samples samples = new Samples();
+        long start;
+        while ((start = System.nanoTime()) < measureUntil) {
+            boolean ok;
+            try {
+                ok = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                ok = false;
+            }
+            long end = System.nanoTime();
+            if (end >= measureFrom && end <= measureUntil) {
+                samples.add(end - start, ok);
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * Latencias de las solicitudes exitosas y cantidad de errores
+     */
+    private static final class Samples {
+
+        private long[] latencies = new long[64];
+        private int size;
+        private long errors;
+
+        void add(long nanos, boolean ok) {
+            if (!ok) {
+                errors++;
+                return;
+            }
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = nanos;
+        }
+
+        void addAll(Samples other) {
+            if (size + other.size > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(size + other.size, latencies.length * 2));
+            }
+            System.arraycopy(other.latencies, 0, latencies, size, other.size);
+            size += other.size;
+            errors += other.errors;
+        }
+
+        Result result(Duration window) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            return new Result(sorted, errors, window);
+        }
+    }
+
+    private record Result(long[] sortedLatencies, long errors, Duration window) {
+
+        double requestsPerSecond() {
+            return sortedLatencies.length / (window.toNanos() / 1_000_000_000.0);
+        }
+
+        double percentileMillis(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.min(sortedLatencies.length - 1L, (long) (percentile * sortedLatencies.length));
+            return sortedLatencies[index] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package ec.edu.ups.icc.fundamentos01.products.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Set;
+import java.util.UUID;
+
+import org.hibernate.LazyInitializationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import ec.edu.ups.icc.fundamentos01.categories.entity.CategoryEntity;
+import ec.edu.ups.icc.fundamentos01.categories.repositories.CategoryRepository;
+import ec.edu.ups.icc.fundamentos01.products.dtos.CreateProductDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.entities.ProductEntity;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductRepository;
+import ec.edu.ups.icc.fundamentos01.users.entities.UserEntity;
+import ec.edu.ups.icc.fundamentos01.users.repositories.UserRepository;
+
+/**
+ * Verifica que las respuestas de productos no dependen de Open Session in View
+ * (spring.jpa.open-in-view: false): owner y categorías son LAZY y el servicio
+ * los carga dentro de su transacción antes de convertir a DTO.
+ *
+ * Usa la base de datos configurada en application.yml. Sin @Transactional en
+ * el test: cada llamada corre como en un request, y los datos se borran al final.
+ */
+@SpringBootTest
+class ProductLazyRelationsTests {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private String namePrefix;
+    private UserEntity owner;
+    private CategoryEntity category;
+    private Long productId;
+
+    @BeforeEach
+    void seedProduct() {
+        namePrefix = "lazy-" + UUID.randomUUID().toString().substring(0, 8);
+        owner = userRepository.save(new UserEntity("Lazy Owner", namePrefix + "@example.com", "secret"));
+        category = categoryRepository.save(new CategoryEntity(namePrefix + "-category", null));
+
+        ProductEntity product = new ProductEntity();
+        product.setName(namePrefix + "-product");
+        product.setPrice(10);
+        product.setStock(1);
+        product.setOwner(owner);
+        product.setCategories(Set.of(category));
+        productId = productRepository.save(product).getId();
+    }
+
+    @AfterEach
+    void deleteData() {
+        jdbc.update("DELETE FROM product_categories WHERE category_id = ?", category.getId());
+        jdbc.update("DELETE FROM products WHERE user_id = ?", owner.getId());
+        jdbc.update("DELETE FROM categories WHERE id = ?", category.getId());
+        jdbc.update("DELETE FROM users WHERE id = ?", owner.getId());
+    }
+
+    @Test
+    void relationsAreNotLoadedOutsideTransaction() {
+        // Sin transacción ni sesión abierta el owner queda como proxy sin inicializar
+        ProductEntity detached = productRepository.findById(productId).orElseThrow();
+
+        assertThatThrownBy(() -> detached.getOwner().getName())
+                .isInstanceOf(LazyInitializationException.class);
+    }
+
+    @Test
+    void findOneMapsOwnerAndCategories() {
+        ProductResponseDto dto = productService.findOne(productId);
+
+        assertThat(dto.user.email).isEqualTo(owner.getEmail());
+        assertThat(dto.categories).extracting(categoryDto -> categoryDto.name)
+                .containsExactly(category.getName());
+    }
+
+    @Test
+    void createMapsOwnerAndCategories() {
+        CreateProductDto request = new CreateProductDto();
+        request.name = namePrefix + "-created";
+        request.price = 20;
+        request.stock = 2;
+        request.userId = owner.getId();
+        request.categoryIds = Set.of(category.getId());
+
+        ProductResponseDto dto = productService.create(request);
+
+        assertThat(dto.user.name).isEqualTo(owner.getName());
+        assertThat(dto.categories).extracting(categoryDto -> categoryDto.name)
+                .containsExactly(category.getName());
+    }
+}
@@ -0,0 +1,113 @@
+package ec.edu.ups.icc.fundamentos01.products.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Transactional;
+
+import ec.edu.ups.icc.fundamentos01.categories.entity.CategoryEntity;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.entities.ProductEntity;
+import ec.edu.ups.icc.fundamentos01.users.entities.UserEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Verifica que las consultas paginadas de productos ejecutan un número
+ * constante de sentencias SQL por página (sin N+1 por owner o categorías).
+ *
+ * Usa la base de datos configurada en application.yml, igual que
+ * Fundamentos01ApplicationTests. Cada test hace rollback de sus datos.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class ProductServiceQueryCountTests {
+
+    private static final int PRODUCTS = 25;
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String namePrefix;
+    private Long categoryId;
+
+    @BeforeEach
+    void seedProducts() {
+        namePrefix = "qc-" + UUID.randomUUID().toString().substring(0, 8);
+
+        UserEntity owner = new UserEntity("Query Count", namePrefix + "@example.com", "secret");
+        entityManager.persist(owner);
+
+        CategoryEntity first = new CategoryEntity(namePrefix + "-a", null);
+        CategoryEntity second = new CategoryEntity(namePrefix + "-b", null);
+        entityManager.persist(first);
+        entityManager.persist(second);
+        categoryId = first.getId();
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            ProductEntity product = new ProductEntity();
+            product.setName(namePrefix + "-product-" + i);
+            product.setPrice(10 + i);
+            product.setStock(i);
+            product.setOwner(owner);
+            product.setCategories(Set.of(first, second));
+            entityManager.persist(product);
+        }
+
+        // Persistencia limpia: todo lo que se lea debe salir de la BD
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findAllPageRunsConstantStatements() {
+        Page<ProductResponseDto> page = productService.findAll(0, PAGE_SIZE, new String[] { "id" });
+
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        // Proyección ProductRow + count + categorías de la página
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void findAllSliceRunsConstantStatements() {
+        Slice<ProductResponseDto> slice = productService.findAllSlice(0, PAGE_SIZE, new String[] { "id" });
+
+        assertThat(slice.getContent()).hasSize(PAGE_SIZE);
+        // Proyección ProductRow (size + 1 filas) + categorías de la página; sin count
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void findWithFiltersPageRunsConstantStatements() {
+        Page<ProductResponseDto> page = productService.findWithFilters(
+                namePrefix, 0.0, 1000.0, categoryId, false, 0, PAGE_SIZE, new String[] { "price", "desc" });
+
+        assertThat(page.getTotalElements()).isEqualTo(PRODUCTS);
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(page.getContent().get(0).categories).hasSize(2);
+        assertThat(page.getContent().get(0).price).isGreaterThan(page.getContent().get(1).price);
+        // Proyección con filtros (Criteria) + count con los mismos filtros + categorías de la página
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,153 @@
+package ec.edu.ups.icc.fundamentos01.products.stock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ec.edu.ups.icc.fundamentos01.config.ProductStockProperties;
+import ec.edu.ups.icc.fundamentos01.products.events.ProductChangedEvent;
+import ec.edu.ups.icc.fundamentos01.products.repositories.ProductRepository;
+
+/**
+ * Verifica que el ledger no pierde ni inventa unidades con reservas,
+ * liberaciones y flush concurrentes, y que no conserva bloques inactivos.
+ *
+ * La columna stock se simula con un contador atómico que aplica las mismas
+ * condiciones que los UPDATE de ProductRepository.
+ */
+class StockReservationLedgerTests {
+
+    private static final long PRODUCT_ID = 1L;
+    private static final int INITIAL_STOCK = 1_000;
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 5_000;
+
+    private final AtomicInteger stock = new AtomicInteger(INITIAL_STOCK);
+    private final AtomicInteger lowestStock = new AtomicInteger(INITIAL_STOCK);
+    private final Queue<Object> events = new ConcurrentLinkedQueue<>();
+
+    private StockReservationLedger ledger;
+
+    @BeforeEach
+    void createLedger() {
+        ProductRepository productRepo = mock(ProductRepository.class);
+        when(productRepo.decrementStock(eq(PRODUCT_ID), anyInt(), any())).thenAnswer(invocation -> {
+            int quantity = invocation.getArgument(1);
+            int before = stock.getAndUpdate(current -> current >= quantity ? current - quantity : current);
+            lowestStock.accumulateAndGet(stock.get(), Math::min);
+            return before >= quantity ? 1 : 0;
+        });
+        when(productRepo.incrementStock(eq(PRODUCT_ID), anyInt(), any())).thenAnswer(invocation -> {
+            stock.addAndGet(invocation.<Integer>getArgument(1));
+            return 1;
+        });
+
+        ProductStockProperties properties = new ProductStockProperties();
+        properties.getLedger().setEnabled(true);
+        properties.getLedger().setBlockSize(10);
+        properties.getLedger().setStripes(4);
+        // Todo bloque cuenta como inactivo: cada flush quita el bloque del mapa
+        // mientras otros hilos reservan y liberan contra él
+        properties.getLedger().setIdleTimeout(Duration.ZERO);
+
+        ledger = new StockReservationLedger(productRepo, events::add, properties);
+    }
+
+    @Test
+    void concurrentReserveReleaseAndFlushKeepStockConsistent() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        try {
+            Future<?> flusher = executor.submit(() -> {
+                start.await();
+                while (running.get()) {
+                    ledger.flush();
+                }
+                return null;
+            });
+
+            // Cada hilo solo libera lo que reservó; devuelve lo que sigue reservado
+            List<Future<Integer>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    int held = 0;
+                    start.await();
+                    for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                        int quantity = random.nextInt(1, 6);
+                        if (held >= quantity && random.nextInt(10) < 4) {
+                            assertThat(ledger.release(PRODUCT_ID, quantity)).isTrue();
+                            held -= quantity;
+                        } else if (ledger.reserve(PRODUCT_ID, quantity)) {
+                            held += quantity;
+                        }
+                    }
+                    return held;
+                }));
+            }
+
+            start.countDown();
+            int reserved = 0;
+            for (Future<Integer> worker : workers) {
+                reserved += worker.get(60, TimeUnit.SECONDS);
+            }
+            running.set(false);
+            flusher.get(60, TimeUnit.SECONDS);
+
+            // Nunca se reservó más de lo que había
+            assertThat(reserved).isBetween(0, INITIAL_STOCK);
+            assertThat(lowestStock.get()).isGreaterThanOrEqualTo(0);
+
+            // Con todo devuelto a la BD, la columna cuenta exactamente lo no reservado
+            ledger.flush();
+            assertThat(ledger.blockCount()).isZero();
+            assertThat(stock.get()).isEqualTo(INITIAL_STOCK - reserved);
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void flushRemovesIdleBlocks() {
+        assertThat(ledger.reserve(PRODUCT_ID, 3)).isTrue();
+        assertThat(ledger.blockCount()).isEqualTo(1);
+        assertThat(stock.get()).isEqualTo(INITIAL_STOCK - 10);
+
+        ledger.flush();
+
+        assertThat(ledger.blockCount()).isZero();
+        assertThat(stock.get()).isEqualTo(INITIAL_STOCK - 3);
+    }
+
+    @Test
+    void releaseWithoutBlockWritesToDatabaseAndPublishesStockChange() {
+        assertThat(ledger.release(PRODUCT_ID, 4)).isTrue();
+
+        assertThat(stock.get()).isEqualTo(INITIAL_STOCK + 4);
+        assertThat(events).singleElement()
+                .isInstanceOfSatisfying(ProductChangedEvent.class,
+                        event -> assertThat(event.getType()).isEqualTo(ProductChangedEvent.Type.STOCK));
+    }
+}
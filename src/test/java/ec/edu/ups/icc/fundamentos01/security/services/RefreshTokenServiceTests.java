@@ -0,0 +1,129 @@
+package ec.edu.ups.icc.fundamentos01.security.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import ec.edu.ups.icc.fundamentos01.users.entities.UserEntity;
+import ec.edu.ups.icc.fundamentos01.users.events.UserChangedEvent;
+import ec.edu.ups.icc.fundamentos01.users.repositories.UserRepository;
+
+/**
+ * Verifica la rotación de refresh tokens: cadena de rotaciones, revocación
+ * de la familia al reutilizar un token, vencimiento y revocación al cambiar
+ * la contraseña.
+ *
+ * Usa la base de datos configurada en application.yml. RefreshTokenService
+ * confirma cada paso por su cuenta, así que los datos se borran al final
+ * (las familias caen con el usuario: ON DELETE CASCADE).
+ */
+@SpringBootTest
+class RefreshTokenServiceTests {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private Long userId;
+    private String email;
+
+    @BeforeEach
+    void createUser() {
+        email = "rt-" + UUID.randomUUID().toString().substring(0, 8) + "@example.com";
+        userId = userRepository.save(new UserEntity("Refresh Token", email, "secret")).getId();
+    }
+
+    @AfterEach
+    void deleteUser() {
+        jdbc.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void rotateIssuesNewTokenForSameUser() {
+        String first = refreshTokenService.issue(userId);
+
+        RefreshTokenService.Rotation second = refreshTokenService.rotate(first);
+        RefreshTokenService.Rotation third = refreshTokenService.rotate(second.refreshToken());
+
+        assertThat(second.userId()).isEqualTo(userId);
+        assertThat(third.userId()).isEqualTo(userId);
+        assertThat(second.refreshToken()).isNotEqualTo(first);
+        assertThat(third.refreshToken()).isNotEqualTo(second.refreshToken());
+        assertThat(familyCount()).isEqualTo(1);
+    }
+
+    @Test
+    void reusingRotatedTokenRevokesWholeFamily() {
+        String first = refreshTokenService.issue(userId);
+        String current = refreshTokenService.rotate(first).refreshToken();
+
+        // El token ya rotado vuelve a aparecer: alguien más lo tiene
+        assertThatThrownBy(() -> refreshTokenService.rotate(first))
+                .isInstanceOf(BadCredentialsException.class);
+
+        // La familia completa quedó revocada, también el token vigente
+        assertThat(familyCount()).isZero();
+        assertThatThrownBy(() -> refreshTokenService.rotate(current))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void expiredFamilyIsRejected() {
+        String token = refreshTokenService.issue(userId);
+        // Solo en la BD: el índice en memoria todavía la cree vigente
+        jdbc.update("UPDATE refresh_tokens SET expires_at = ? WHERE user_id = ?",
+                LocalDateTime.now().minusMinutes(1), userId);
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(token))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void passwordChangeRevokesAllFamilies() {
+        String first = refreshTokenService.issue(userId);
+        String second = refreshTokenService.issue(userId);
+
+        refreshTokenService.onUserChanged(new UserChangedEvent(userId, email, email, true));
+
+        assertThat(familyCount()).isZero();
+        assertThatThrownBy(() -> refreshTokenService.rotate(first))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> refreshTokenService.rotate(second))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void otherUserChangesKeepFamilies() {
+        String token = refreshTokenService.issue(userId);
+
+        // Cambio de nombre: sin contraseña nueva las sesiones siguen
+        refreshTokenService.onUserChanged(new UserChangedEvent(userId, email, email, false));
+
+        assertThat(refreshTokenService.rotate(token).userId()).isEqualTo(userId);
+    }
+
+    @Test
+    void malformedTokenIsRejected() {
+        assertThatThrownBy(() -> refreshTokenService.rotate("not-a-token"))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    private int familyCount() {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM refresh_tokens WHERE user_id = ?", Integer.class, userId);
+    }
+}